@@ -13,6 +13,10 @@ import de.blu.database.config.redis.JsonRedisConfigLoader;
 import de.blu.database.config.redis.RedisConfig;
 import de.blu.database.config.redis.RedisConfigLoader;
 import de.blu.database.data.Platform;
+import de.blu.database.metrics.CassandraMetricsBridge;
+import de.blu.database.metrics.JmxMetricsExporter;
+import de.blu.database.metrics.Metrics;
+import de.blu.database.storage.cache.NearCacheKeyValueStorage;
 import de.blu.database.storage.cassandra.CassandraConnection;
 import de.blu.database.storage.cassandra.CassandraConnectionProvider;
 import de.blu.database.storage.mysql.MySQLConnection;
@@ -39,6 +43,9 @@ public final class DatabaseAPI {
   private RedisConfigLoader redisConfigLoader;
   @Getter private RedisConfig redisConfig;
   @Getter private RedisConnection redisConnection;
+  @Getter private NearCacheKeyValueStorage redisNearCache;
+
+  @Getter private JmxMetricsExporter jmxMetricsExporter;
 
   private Platform platform;
   private File libsDirectory;
@@ -53,9 +60,39 @@ public final class DatabaseAPI {
   }
 
   public static void init(Platform platform, File libsDirectory, File configDirectory) {
+    DatabaseAPI.init(platform, libsDirectory, configDirectory, true);
+  }
+
+  /**
+   * Load the libraries and configs and connect to the enabled databases
+   *
+   * @param platform the platform
+   * @param libsDirectory the directory of the libraries
+   * @param configDirectory the directory of the configs
+   * @param jmxMetricsEnabled if the metrics are exported as the MBean de.blu.database:type=Metrics,
+   *     call {@link #shutdown()} on disable to unregister it again
+   */
+  public static void init(
+      Platform platform, File libsDirectory, File configDirectory, boolean jmxMetricsEnabled) {
     DatabaseAPI databaseAPI = new DatabaseAPI(platform, libsDirectory, configDirectory);
     databaseAPI.loadLibraries();
     databaseAPI.loadConfigs();
+
+    if (jmxMetricsEnabled) {
+      databaseAPI.jmxMetricsExporter = new JmxMetricsExporter();
+      databaseAPI.jmxMetricsExporter.register();
+    }
+  }
+
+  /**
+   * Unregister the JMX MBean, the platform MBeanServer would keep the classes of the plugin loaded
+   * after a disable or reload
+   */
+  public void shutdown() {
+    if (this.jmxMetricsExporter != null) {
+      this.jmxMetricsExporter.unregister();
+      this.jmxMetricsExporter = null;
+    }
   }
 
   public void loadLibraries() {
@@ -72,7 +109,9 @@ public final class DatabaseAPI {
     this.cassandraConfigLoader.load();
 
     if (this.cassandraConfig.isEnabled()) {
-      this.cassandraConnection = new CassandraConnectionProvider();
+      this.cassandraConnection =
+          Metrics.instrument(
+              CassandraConnection.class, new CassandraConnectionProvider(), "cassandra");
       this.cassandraConnection.init(this.cassandraConfig);
 
       try {
@@ -84,6 +123,8 @@ public final class DatabaseAPI {
 
       if (this.cassandraConnection.isConnected()) {
         System.out.println("Successfully connected to Cassandra.");
+        CassandraMetricsBridge.bind(
+            Metrics.getRegistry(), this.cassandraConnection.getSession().getCluster());
       } else {
         System.out.println("Could not connect to Cassandra.");
       }
@@ -97,7 +138,8 @@ public final class DatabaseAPI {
     this.mySQLConfigLoader.load();
 
     if (this.mySQLConfig.isEnabled()) {
-      this.mySQLConnection = new MySQLConnectionProvider();
+      this.mySQLConnection =
+          Metrics.instrument(MySQLConnection.class, new MySQLConnectionProvider(), "mysql");
       this.mySQLConnection.init(this.mySQLConfig);
 
       try {
@@ -122,7 +164,8 @@ public final class DatabaseAPI {
     this.redisConfigLoader.load();
 
     if (this.redisConfig.isEnabled()) {
-      this.redisConnection = new RedisConnectionProvider();
+      this.redisConnection =
+          Metrics.instrument(RedisConnection.class, new RedisConnectionProvider(), "redis");
       this.redisConnection.init(this.redisConfig);
 
       try {
@@ -134,6 +177,17 @@ public final class DatabaseAPI {
 
       if (this.redisConnection.isConnected()) {
         System.out.println("Successfully connected to Redis.");
+
+        if (this.redisConfig.isNearCacheEnabled()) {
+          this.redisNearCache =
+              new NearCacheKeyValueStorage(
+                  this.redisConnection,
+                  this.redisConnection,
+                  this.redisConfig.getDatabase(),
+                  this.redisConfig.getNearCacheKeyPrefixes(),
+                  this.redisConfig.getNearCacheMaxSize(),
+                  this.redisConfig.getNearCacheMaxTtlMillis());
+        }
       } else {
         System.out.println("Could not connect to Redis.");
       }
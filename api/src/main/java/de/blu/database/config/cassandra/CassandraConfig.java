@@ -13,6 +13,36 @@ public interface CassandraConfig {
 
   String getPassword();
 
+  int getPreparedStatementCacheSize();
+
+  int getAsyncCallbackThreads();
+
+  int getMaxInFlightRequests();
+
+  int getMaxQueuedRequests();
+
+  int getBatchSize();
+
+  int getFetchSize();
+
+  boolean isWriteBehindEnabled();
+
+  int getWriteBehindFlushIntervalMillis();
+
+  int getWriteBehindMaxPendingRows();
+
+  int getExecutorQueueSize();
+
+  int getExecutorShutdownTimeoutMillis();
+
+  boolean isVirtualThreadsEnabled();
+
+  int getSlowLogThresholdMillis();
+
+  int getSlowLogBufferSize();
+
+  String getSlowLogFile();
+
   void setEnabled(boolean value);
 
   void setHosts(List<String> hosts);
@@ -23,5 +53,35 @@ public interface CassandraConfig {
 
   void setPassword(String password);
 
+  void setPreparedStatementCacheSize(int preparedStatementCacheSize);
+
+  void setAsyncCallbackThreads(int asyncCallbackThreads);
+
+  void setMaxInFlightRequests(int maxInFlightRequests);
+
+  void setMaxQueuedRequests(int maxQueuedRequests);
+
+  void setBatchSize(int batchSize);
+
+  void setFetchSize(int fetchSize);
+
+  void setWriteBehindEnabled(boolean writeBehindEnabled);
+
+  void setWriteBehindFlushIntervalMillis(int writeBehindFlushIntervalMillis);
+
+  void setWriteBehindMaxPendingRows(int writeBehindMaxPendingRows);
+
+  void setExecutorQueueSize(int executorQueueSize);
+
+  void setExecutorShutdownTimeoutMillis(int executorShutdownTimeoutMillis);
+
+  void setVirtualThreadsEnabled(boolean virtualThreadsEnabled);
+
+  void setSlowLogThresholdMillis(int slowLogThresholdMillis);
+
+  void setSlowLogBufferSize(int slowLogBufferSize);
+
+  void setSlowLogFile(String slowLogFile);
+
   void copyFrom(CassandraConfig cassandraConfig);
 }
@@ -15,6 +15,22 @@ public final class JsonCassandraConfig implements CassandraConfig {
   private String keySpaceName = "network";
   private String userName = "cassandra";
   private String password = "cassandra";
+  private int preparedStatementCacheSize = 512;
+  private int asyncCallbackThreads = 2;
+  private int maxInFlightRequests = 1024;
+  private int maxQueuedRequests = 10000;
+  private int batchSize = 50;
+  private int fetchSize = 500;
+  // not used for writes through a table cache, those are written right away
+  private boolean writeBehindEnabled = false;
+  private int writeBehindFlushIntervalMillis = 1000;
+  private int writeBehindMaxPendingRows = 10000;
+  private int executorQueueSize = 1000;
+  private int executorShutdownTimeoutMillis = 5000;
+  private boolean virtualThreadsEnabled = false;
+  private int slowLogThresholdMillis = 0;
+  private int slowLogBufferSize = 256;
+  private String slowLogFile = "";
 
   @Override
   public void copyFrom(CassandraConfig cassandraConfig) {
@@ -23,5 +39,20 @@ public final class JsonCassandraConfig implements CassandraConfig {
     this.keySpaceName = cassandraConfig.getKeySpaceName();
     this.userName = cassandraConfig.getUserName();
     this.password = cassandraConfig.getPassword();
+    this.preparedStatementCacheSize = cassandraConfig.getPreparedStatementCacheSize();
+    this.asyncCallbackThreads = cassandraConfig.getAsyncCallbackThreads();
+    this.maxInFlightRequests = cassandraConfig.getMaxInFlightRequests();
+    this.maxQueuedRequests = cassandraConfig.getMaxQueuedRequests();
+    this.batchSize = cassandraConfig.getBatchSize();
+    this.fetchSize = cassandraConfig.getFetchSize();
+    this.writeBehindEnabled = cassandraConfig.isWriteBehindEnabled();
+    this.writeBehindFlushIntervalMillis = cassandraConfig.getWriteBehindFlushIntervalMillis();
+    this.writeBehindMaxPendingRows = cassandraConfig.getWriteBehindMaxPendingRows();
+    this.executorQueueSize = cassandraConfig.getExecutorQueueSize();
+    this.executorShutdownTimeoutMillis = cassandraConfig.getExecutorShutdownTimeoutMillis();
+    this.virtualThreadsEnabled = cassandraConfig.isVirtualThreadsEnabled();
+    this.slowLogThresholdMillis = cassandraConfig.getSlowLogThresholdMillis();
+    this.slowLogBufferSize = cassandraConfig.getSlowLogBufferSize();
+    this.slowLogFile = cassandraConfig.getSlowLogFile();
   }
 }
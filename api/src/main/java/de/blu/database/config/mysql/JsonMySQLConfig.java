@@ -13,6 +13,31 @@ public final class JsonMySQLConfig implements MySQLConfig {
   private String userName = "root";
   private String password = "123456";
   private String database = "network";
+  private boolean poolEnabled = false;
+  private int poolMinSize = 2;
+  private int poolMaxSize = 10;
+  private int poolIdleTimeoutSeconds = 300;
+  private int poolBorrowTimeoutMillis = 30000;
+  private int poolValidationTimeoutSeconds = 5;
+  private int statementCacheSize = 64;
+  private int batchSize = 1000;
+  private int fetchSize = 1000;
+  // not used for writes through a table cache, those are written right away
+  private boolean writeBehindEnabled = false;
+  private int writeBehindFlushIntervalMillis = 1000;
+  private int writeBehindMaxPendingRows = 10000;
+  private int executorThreads = 10;
+  private int executorQueueSize = 1000;
+  // CALLER_RUNS is opt-in, it would run JDBC on the thread which called an async method
+  private String executorRejectionPolicy = "ABORT";
+  private int executorShutdownTimeoutMillis = 5000;
+  // runs at most poolMaxSize queries at once on virtual threads. Not useful with the bundled
+  // Connector/J 8.0.25, it blocks inside synchronized blocks which pins the carrier threads, so
+  // only as many queries as there are CPU cores run at once. Needs Connector/J 8.0.33 or newer
+  private boolean virtualThreadsEnabled = false;
+  private int slowLogThresholdMillis = 0;
+  private int slowLogBufferSize = 256;
+  private String slowLogFile = "";
 
   @Override
   public void copyFrom(MySQLConfig mySQLConfig) {
@@ -22,5 +47,25 @@ public final class JsonMySQLConfig implements MySQLConfig {
     this.userName = mySQLConfig.getUserName();
     this.password = mySQLConfig.getPassword();
     this.database = mySQLConfig.getDatabase();
+    this.poolEnabled = mySQLConfig.isPoolEnabled();
+    this.poolMinSize = mySQLConfig.getPoolMinSize();
+    this.poolMaxSize = mySQLConfig.getPoolMaxSize();
+    this.poolIdleTimeoutSeconds = mySQLConfig.getPoolIdleTimeoutSeconds();
+    this.poolBorrowTimeoutMillis = mySQLConfig.getPoolBorrowTimeoutMillis();
+    this.poolValidationTimeoutSeconds = mySQLConfig.getPoolValidationTimeoutSeconds();
+    this.statementCacheSize = mySQLConfig.getStatementCacheSize();
+    this.batchSize = mySQLConfig.getBatchSize();
+    this.fetchSize = mySQLConfig.getFetchSize();
+    this.writeBehindEnabled = mySQLConfig.isWriteBehindEnabled();
+    this.writeBehindFlushIntervalMillis = mySQLConfig.getWriteBehindFlushIntervalMillis();
+    this.writeBehindMaxPendingRows = mySQLConfig.getWriteBehindMaxPendingRows();
+    this.executorThreads = mySQLConfig.getExecutorThreads();
+    this.executorQueueSize = mySQLConfig.getExecutorQueueSize();
+    this.executorRejectionPolicy = mySQLConfig.getExecutorRejectionPolicy();
+    this.executorShutdownTimeoutMillis = mySQLConfig.getExecutorShutdownTimeoutMillis();
+    this.virtualThreadsEnabled = mySQLConfig.isVirtualThreadsEnabled();
+    this.slowLogThresholdMillis = mySQLConfig.getSlowLogThresholdMillis();
+    this.slowLogBufferSize = mySQLConfig.getSlowLogBufferSize();
+    this.slowLogFile = mySQLConfig.getSlowLogFile();
   }
 }
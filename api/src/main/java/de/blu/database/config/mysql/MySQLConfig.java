@@ -13,6 +13,46 @@ public interface MySQLConfig {
 
   String getDatabase();
 
+  boolean isPoolEnabled();
+
+  int getPoolMinSize();
+
+  int getPoolMaxSize();
+
+  int getPoolIdleTimeoutSeconds();
+
+  int getPoolBorrowTimeoutMillis();
+
+  int getPoolValidationTimeoutSeconds();
+
+  int getStatementCacheSize();
+
+  int getBatchSize();
+
+  int getFetchSize();
+
+  boolean isWriteBehindEnabled();
+
+  int getWriteBehindFlushIntervalMillis();
+
+  int getWriteBehindMaxPendingRows();
+
+  int getExecutorThreads();
+
+  int getExecutorQueueSize();
+
+  String getExecutorRejectionPolicy();
+
+  int getExecutorShutdownTimeoutMillis();
+
+  boolean isVirtualThreadsEnabled();
+
+  int getSlowLogThresholdMillis();
+
+  int getSlowLogBufferSize();
+
+  String getSlowLogFile();
+
   void setEnabled(boolean value);
 
   void setHost(String host);
@@ -25,5 +65,45 @@ public interface MySQLConfig {
 
   void setDatabase(String database);
 
+  void setPoolEnabled(boolean poolEnabled);
+
+  void setPoolMinSize(int poolMinSize);
+
+  void setPoolMaxSize(int poolMaxSize);
+
+  void setPoolIdleTimeoutSeconds(int poolIdleTimeoutSeconds);
+
+  void setPoolBorrowTimeoutMillis(int poolBorrowTimeoutMillis);
+
+  void setPoolValidationTimeoutSeconds(int poolValidationTimeoutSeconds);
+
+  void setStatementCacheSize(int statementCacheSize);
+
+  void setBatchSize(int batchSize);
+
+  void setFetchSize(int fetchSize);
+
+  void setWriteBehindEnabled(boolean writeBehindEnabled);
+
+  void setWriteBehindFlushIntervalMillis(int writeBehindFlushIntervalMillis);
+
+  void setWriteBehindMaxPendingRows(int writeBehindMaxPendingRows);
+
+  void setExecutorThreads(int executorThreads);
+
+  void setExecutorQueueSize(int executorQueueSize);
+
+  void setExecutorRejectionPolicy(String executorRejectionPolicy);
+
+  void setExecutorShutdownTimeoutMillis(int executorShutdownTimeoutMillis);
+
+  void setVirtualThreadsEnabled(boolean virtualThreadsEnabled);
+
+  void setSlowLogThresholdMillis(int slowLogThresholdMillis);
+
+  void setSlowLogBufferSize(int slowLogBufferSize);
+
+  void setSlowLogFile(String slowLogFile);
+
   void copyFrom(MySQLConfig mySQLConfig);
 }
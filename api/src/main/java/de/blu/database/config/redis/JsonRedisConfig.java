@@ -3,6 +3,9 @@ package de.blu.database.config.redis;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 public final class JsonRedisConfig implements RedisConfig {
@@ -11,6 +14,34 @@ public final class JsonRedisConfig implements RedisConfig {
   private String host = "127.0.0.1";
   private int port = 6379;
   private String password = "";
+  private int database = 0;
+  private int scanCount = 1000;
+  private int batchSize = 500;
+  private boolean publishCheckChannelExists = false;
+  private int channelExistsCacheMillis = 1000;
+  private int pubSubCallbackThreads = 1;
+  private int publishBatchWindowMillis = 10;
+  private int publishBatchMaxMessages = 100;
+  private int publishCompressThreshold = 1024;
+  private long streamMaxLength = 100000;
+  private int streamReadBatchSize = 100;
+  private int streamReadBlockMillis = 1000;
+  private int streamWorkerThreads = 4;
+  private int streamClaimIdleMillis = 60000;
+  // a message delivered this often is moved to <stream>:dead-letter and acknowledged
+  private int streamMaxDeliveries = 5;
+  private boolean nearCacheEnabled = false;
+  private int nearCacheMaxSize = 10000;
+  private int nearCacheMaxTtlMillis = 30000;
+  // only keys with one of these prefixes are cached and watched, all keys if it is empty
+  private List<String> nearCacheKeyPrefixes = new ArrayList<>();
+  private int executorQueueSize = 10000;
+  // CALLER_RUNS is opt-in and only used by the stream workers, the pub/sub listeners always abort
+  private String executorRejectionPolicy = "ABORT";
+  private int executorShutdownTimeoutMillis = 5000;
+  private int slowLogThresholdMillis = 0;
+  private int slowLogBufferSize = 256;
+  private String slowLogFile = "";
 
   @Override
   public void copyFrom(RedisConfig redisConfig) {
@@ -18,5 +49,30 @@ public final class JsonRedisConfig implements RedisConfig {
     this.host = redisConfig.getHost();
     this.port = redisConfig.getPort();
     this.password = redisConfig.getPassword();
+    this.database = redisConfig.getDatabase();
+    this.scanCount = redisConfig.getScanCount();
+    this.batchSize = redisConfig.getBatchSize();
+    this.publishCheckChannelExists = redisConfig.isPublishCheckChannelExists();
+    this.channelExistsCacheMillis = redisConfig.getChannelExistsCacheMillis();
+    this.pubSubCallbackThreads = redisConfig.getPubSubCallbackThreads();
+    this.publishBatchWindowMillis = redisConfig.getPublishBatchWindowMillis();
+    this.publishBatchMaxMessages = redisConfig.getPublishBatchMaxMessages();
+    this.publishCompressThreshold = redisConfig.getPublishCompressThreshold();
+    this.streamMaxLength = redisConfig.getStreamMaxLength();
+    this.streamReadBatchSize = redisConfig.getStreamReadBatchSize();
+    this.streamReadBlockMillis = redisConfig.getStreamReadBlockMillis();
+    this.streamWorkerThreads = redisConfig.getStreamWorkerThreads();
+    this.streamClaimIdleMillis = redisConfig.getStreamClaimIdleMillis();
+    this.streamMaxDeliveries = redisConfig.getStreamMaxDeliveries();
+    this.nearCacheEnabled = redisConfig.isNearCacheEnabled();
+    this.nearCacheMaxSize = redisConfig.getNearCacheMaxSize();
+    this.nearCacheMaxTtlMillis = redisConfig.getNearCacheMaxTtlMillis();
+    this.nearCacheKeyPrefixes = redisConfig.getNearCacheKeyPrefixes();
+    this.executorQueueSize = redisConfig.getExecutorQueueSize();
+    this.executorRejectionPolicy = redisConfig.getExecutorRejectionPolicy();
+    this.executorShutdownTimeoutMillis = redisConfig.getExecutorShutdownTimeoutMillis();
+    this.slowLogThresholdMillis = redisConfig.getSlowLogThresholdMillis();
+    this.slowLogBufferSize = redisConfig.getSlowLogBufferSize();
+    this.slowLogFile = redisConfig.getSlowLogFile();
   }
 }
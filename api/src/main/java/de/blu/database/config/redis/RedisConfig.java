@@ -1,5 +1,7 @@
 package de.blu.database.config.redis;
 
+import java.util.List;
+
 public interface RedisConfig {
   boolean isEnabled();
 
@@ -9,13 +11,113 @@ public interface RedisConfig {
 
   String getPassword();
 
+  int getDatabase();
+
+  int getScanCount();
+
+  int getBatchSize();
+
+  boolean isPublishCheckChannelExists();
+
+  int getChannelExistsCacheMillis();
+
+  int getPubSubCallbackThreads();
+
+  int getPublishBatchWindowMillis();
+
+  int getPublishBatchMaxMessages();
+
+  int getPublishCompressThreshold();
+
+  long getStreamMaxLength();
+
+  int getStreamReadBatchSize();
+
+  int getStreamReadBlockMillis();
+
+  int getStreamWorkerThreads();
+
+  int getStreamClaimIdleMillis();
+
+  int getStreamMaxDeliveries();
+
+  boolean isNearCacheEnabled();
+
+  int getNearCacheMaxSize();
+
+  int getNearCacheMaxTtlMillis();
+
+  List<String> getNearCacheKeyPrefixes();
+
+  int getExecutorQueueSize();
+
+  String getExecutorRejectionPolicy();
+
+  int getExecutorShutdownTimeoutMillis();
+
+  int getSlowLogThresholdMillis();
+
+  int getSlowLogBufferSize();
+
+  String getSlowLogFile();
+
   void setEnabled(boolean value);
 
   void setHost(String host);
 
   void setPort(int port);
 
+  void setDatabase(int database);
+
   void setPassword(String password);
 
+  void setScanCount(int scanCount);
+
+  void setBatchSize(int batchSize);
+
+  void setPublishCheckChannelExists(boolean publishCheckChannelExists);
+
+  void setChannelExistsCacheMillis(int channelExistsCacheMillis);
+
+  void setPubSubCallbackThreads(int pubSubCallbackThreads);
+
+  void setPublishBatchWindowMillis(int publishBatchWindowMillis);
+
+  void setPublishBatchMaxMessages(int publishBatchMaxMessages);
+
+  void setPublishCompressThreshold(int publishCompressThreshold);
+
+  void setStreamMaxLength(long streamMaxLength);
+
+  void setStreamReadBatchSize(int streamReadBatchSize);
+
+  void setStreamReadBlockMillis(int streamReadBlockMillis);
+
+  void setStreamWorkerThreads(int streamWorkerThreads);
+
+  void setStreamClaimIdleMillis(int streamClaimIdleMillis);
+
+  void setStreamMaxDeliveries(int streamMaxDeliveries);
+
+  void setNearCacheEnabled(boolean nearCacheEnabled);
+
+  void setNearCacheMaxSize(int nearCacheMaxSize);
+
+  void setNearCacheMaxTtlMillis(int nearCacheMaxTtlMillis);
+
+  void setNearCacheKeyPrefixes(List<String> nearCacheKeyPrefixes);
+
+  void setExecutorQueueSize(int executorQueueSize);
+
+  void setExecutorRejectionPolicy(String executorRejectionPolicy);
+
+  void setExecutorShutdownTimeoutMillis(int executorShutdownTimeoutMillis);
+
+  void setSlowLogThresholdMillis(int slowLogThresholdMillis);
+
+  void setSlowLogBufferSize(int slowLogBufferSize);
+
+  void setSlowLogFile(String slowLogFile);
+
   void copyFrom(RedisConfig redisConfig);
 }
@@ -0,0 +1,129 @@
+package de.blu.database.data;
+
+import lombok.Getter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/** A lightweight cursor on one row of a {@link ResultTable}, it holds no values on its own */
+@Getter
+public final class ResultRow {
+
+  private final ResultTable table;
+  private final int index;
+
+  public ResultRow(ResultTable table, int index) {
+    this.table = table;
+    this.index = index;
+  }
+
+  public boolean isNull(String columnName) {
+    return this.table.isNull(this.index, this.requireColumn(columnName));
+  }
+
+  public int getInt(String columnName) {
+    return this.table.getInt(this.index, this.requireColumn(columnName));
+  }
+
+  public long getLong(String columnName) {
+    return this.table.getLong(this.index, this.requireColumn(columnName));
+  }
+
+  public boolean getBoolean(String columnName) {
+    return this.table.getBoolean(this.index, this.requireColumn(columnName));
+  }
+
+  public String getString(String columnName) {
+    Object value = this.getObject(columnName);
+    return value == null ? null : value.toString();
+  }
+
+  public Object getObject(String columnName) {
+    return this.table.getObject(this.index, this.requireColumn(columnName));
+  }
+
+  public Object getObject(int column) {
+    return this.table.getObject(this.index, column);
+  }
+
+  /**
+   * Get a read only Map view of the row with the column names as keys
+   *
+   * @return Map with all columns of the row
+   */
+  public Map<String, Object> asMap() {
+    return new AbstractMap<String, Object>() {
+      @Override
+      public int size() {
+        return ResultRow.this.table.getColumnCount();
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+        return key instanceof String && ResultRow.this.table.getColumnIndex((String) key) != -1;
+      }
+
+      @Override
+      public Object get(Object key) {
+        if (!(key instanceof String)) {
+          return null;
+        }
+
+        int column = ResultRow.this.table.getColumnIndex((String) key);
+        return column == -1 ? null : ResultRow.this.getObject(column);
+      }
+
+      @Override
+      public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+          @Override
+          public int size() {
+            return ResultRow.this.table.getColumnCount();
+          }
+
+          @Override
+          public Iterator<Entry<String, Object>> iterator() {
+            return new Iterator<Entry<String, Object>>() {
+              private int column;
+
+              @Override
+              public boolean hasNext() {
+                return this.column < ResultRow.this.table.getColumnCount();
+              }
+
+              @Override
+              public Entry<String, Object> next() {
+                if (!this.hasNext()) {
+                  throw new NoSuchElementException();
+                }
+
+                int column = this.column++;
+                return new SimpleImmutableEntry<>(
+                    ResultRow.this.table.getColumnNames()[column],
+                    ResultRow.this.getObject(column));
+              }
+            };
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return this.asMap().toString();
+  }
+
+  private int requireColumn(String columnName) {
+    int column = this.table.getColumnIndex(columnName);
+    if (column == -1) {
+      throw new IllegalArgumentException("Unknown column " + columnName);
+    }
+
+    return column;
+  }
+}
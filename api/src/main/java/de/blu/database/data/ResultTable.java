@@ -0,0 +1,350 @@
+package de.blu.database.data;
+
+import lombok.Getter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Column oriented result of a query. The column names are stored once per result, every column
+ * keeps its values in one flat array and INTEGER, BIGINT and BOOLEAN columns are stored unboxed
+ */
+public final class ResultTable implements Iterable<ResultRow> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  @Getter private final String[] columnNames;
+  @Getter private final TableColumnType[] columnTypes;
+  private final Map<String, Integer> columnIndexes;
+
+  private final Object[] columns;
+  private final BitSet[] nulls;
+
+  @Getter private int rowCount;
+  private int capacity = INITIAL_CAPACITY;
+
+  /**
+   * Create an empty ResultTable
+   *
+   * @param columnNames the names of the columns
+   * @param columnTypes the types of the columns, INTEGER, BIGINT and BOOLEAN columns are stored
+   *     unboxed, every other type or null is stored as Object
+   */
+  public ResultTable(String[] columnNames, TableColumnType[] columnTypes) {
+    this.columnNames = columnNames;
+    this.columnTypes = columnTypes;
+    this.columnIndexes = new HashMap<>(columnNames.length * 2);
+    this.columns = new Object[columnNames.length];
+    this.nulls = new BitSet[columnNames.length];
+
+    for (int i = 0; i < columnNames.length; i++) {
+      this.columnIndexes.put(columnNames[i], i);
+      this.columns[i] = this.createColumn(columnTypes[i], this.capacity);
+    }
+  }
+
+  /**
+   * Create a ResultTable without columns and rows
+   *
+   * @return the empty ResultTable
+   */
+  public static ResultTable empty() {
+    return new ResultTable(new String[0], new TableColumnType[0]);
+  }
+
+  /**
+   * Copy the table, changing the copy does not change this table
+   *
+   * @return the copy
+   */
+  public ResultTable copy() {
+    ResultTable copy = new ResultTable(this.columnNames, this.columnTypes);
+    copy.rowCount = this.rowCount;
+    copy.capacity = this.capacity;
+    for (int i = 0; i < this.columns.length; i++) {
+      copy.columns[i] = this.growColumn(this.columns[i], this.capacity);
+      copy.nulls[i] = this.nulls[i] == null ? null : (BitSet) this.nulls[i].clone();
+    }
+
+    return copy;
+  }
+
+  public int getColumnCount() {
+    return this.columnNames.length;
+  }
+
+  /**
+   * Get the position of a column
+   *
+   * @param columnName the name of the column
+   * @return the position or -1 if the column does not exist
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = this.columnIndexes.get(columnName);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Append an empty row, the values are set with the set methods
+   *
+   * @return the index of the new row
+   */
+  public int addRow() {
+    if (this.rowCount == this.capacity) {
+      this.capacity *= 2;
+      for (int i = 0; i < this.columns.length; i++) {
+        this.columns[i] = this.growColumn(this.columns[i], this.capacity);
+      }
+    }
+
+    return this.rowCount++;
+  }
+
+  public void setInt(int row, int column, int value) {
+    ((int[]) this.columns[column])[row] = value;
+  }
+
+  public void setLong(int row, int column, long value) {
+    ((long[]) this.columns[column])[row] = value;
+  }
+
+  public void setBoolean(int row, int column, boolean value) {
+    ((boolean[]) this.columns[column])[row] = value;
+  }
+
+  /**
+   * Set a value of any type, values of primitive columns are unboxed
+   *
+   * @param row the index of the row
+   * @param column the index of the column
+   * @param value the value or null
+   */
+  public void setObject(int row, int column, Object value) {
+    Object values = this.columns[column];
+    if (values instanceof Object[]) {
+      ((Object[]) values)[row] = value;
+      return;
+    }
+
+    if (value == null) {
+      this.setNull(row, column);
+    } else if (values instanceof int[]) {
+      this.setInt(row, column, ((Number) value).intValue());
+    } else if (values instanceof long[]) {
+      this.setLong(row, column, ((Number) value).longValue());
+    } else {
+      this.setBoolean(row, column, (Boolean) value);
+    }
+  }
+
+  public void setNull(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof Object[]) {
+      ((Object[]) values)[row] = null;
+      return;
+    }
+
+    if (this.nulls[column] == null) {
+      this.nulls[column] = new BitSet();
+    }
+
+    this.nulls[column].set(row);
+  }
+
+  public boolean isNull(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof Object[]) {
+      return ((Object[]) values)[row] == null;
+    }
+
+    return this.nulls[column] != null && this.nulls[column].get(row);
+  }
+
+  public int getInt(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof int[]) {
+      return ((int[]) values)[row];
+    }
+
+    Object value = this.getObject(row, column);
+    return value == null ? 0 : ((Number) value).intValue();
+  }
+
+  public long getLong(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof long[]) {
+      return ((long[]) values)[row];
+    }
+
+    Object value = this.getObject(row, column);
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  public boolean getBoolean(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof boolean[]) {
+      return ((boolean[]) values)[row];
+    }
+
+    Object value = this.getObject(row, column);
+    return value != null && (Boolean) value;
+  }
+
+  /**
+   * Get a value boxed like the driver would return it
+   *
+   * @param row the index of the row
+   * @param column the index of the column
+   * @return the value or null
+   */
+  public Object getObject(int row, int column) {
+    Object values = this.columns[column];
+    if (values instanceof Object[]) {
+      return ((Object[]) values)[row];
+    }
+
+    if (this.isNull(row, column)) {
+      return null;
+    }
+
+    if (values instanceof int[]) {
+      return ((int[]) values)[row];
+    }
+
+    if (values instanceof long[]) {
+      return ((long[]) values)[row];
+    }
+
+    return ((boolean[]) values)[row];
+  }
+
+  /**
+   * Get a row of the table
+   *
+   * @param row the index of the row
+   * @return the row
+   */
+  public ResultRow getRow(int row) {
+    if (row < 0 || row >= this.rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + this.rowCount);
+    }
+
+    return new ResultRow(this, row);
+  }
+
+  @Override
+  public Iterator<ResultRow> iterator() {
+    return new Iterator<ResultRow>() {
+      private int row;
+
+      @Override
+      public boolean hasNext() {
+        return this.row < ResultTable.this.rowCount;
+      }
+
+      @Override
+      public ResultRow next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return new ResultRow(ResultTable.this, this.row++);
+      }
+    };
+  }
+
+  /**
+   * Get a read only Map view of the table in the layout of {@link
+   * de.blu.database.storage.TableStorage#getData(String)}. The rows are views too, no values are
+   * copied
+   *
+   * @return Map with the row index as key and the row as value
+   */
+  public Map<Integer, Map<String, Object>> asMap() {
+    return new AbstractMap<Integer, Map<String, Object>>() {
+      @Override
+      public int size() {
+        return ResultTable.this.rowCount;
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+        return key instanceof Integer
+            && (Integer) key >= 0
+            && (Integer) key < ResultTable.this.rowCount;
+      }
+
+      @Override
+      public Map<String, Object> get(Object key) {
+        return this.containsKey(key) ? ResultTable.this.getRow((Integer) key).asMap() : null;
+      }
+
+      @Override
+      public Set<Entry<Integer, Map<String, Object>>> entrySet() {
+        return new AbstractSet<Entry<Integer, Map<String, Object>>>() {
+          @Override
+          public int size() {
+            return ResultTable.this.rowCount;
+          }
+
+          @Override
+          public Iterator<Entry<Integer, Map<String, Object>>> iterator() {
+            Iterator<ResultRow> rows = ResultTable.this.iterator();
+            return new Iterator<Entry<Integer, Map<String, Object>>>() {
+              @Override
+              public boolean hasNext() {
+                return rows.hasNext();
+              }
+
+              @Override
+              public Entry<Integer, Map<String, Object>> next() {
+                ResultRow row = rows.next();
+                return new SimpleImmutableEntry<>(row.getIndex(), row.asMap());
+              }
+            };
+          }
+        };
+      }
+    };
+  }
+
+  private Object createColumn(TableColumnType columnType, int capacity) {
+    if (columnType == null) {
+      return new Object[capacity];
+    }
+
+    switch (columnType) {
+      case INTEGER:
+        return new int[capacity];
+      case BIGINT:
+        return new long[capacity];
+      case BOOLEAN:
+        return new boolean[capacity];
+      default:
+        return new Object[capacity];
+    }
+  }
+
+  private Object growColumn(Object values, int capacity) {
+    if (values instanceof int[]) {
+      return Arrays.copyOf((int[]) values, capacity);
+    }
+
+    if (values instanceof long[]) {
+      return Arrays.copyOf((long[]) values, capacity);
+    }
+
+    if (values instanceof boolean[]) {
+      return Arrays.copyOf((boolean[]) values, capacity);
+    }
+
+    return Arrays.copyOf((Object[]) values, capacity);
+  }
+}
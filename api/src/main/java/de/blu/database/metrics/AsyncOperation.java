@@ -0,0 +1,95 @@
+package de.blu.database.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * An instrumented operation which is recorded once. A storage takes over a void async operation
+ * with {@link Metrics#handOver()}, it is then recorded when the work it started is done instead of
+ * when the method returned
+ */
+public final class AsyncOperation {
+
+  static final AsyncOperation NONE = new AsyncOperation(null);
+
+  private static final ThreadLocal<AsyncOperation> CURRENT = new ThreadLocal<>();
+
+  private final Consumer<Throwable> recorder;
+  private final AtomicBoolean done = new AtomicBoolean();
+  private volatile boolean handedOver;
+  private volatile Throwable reportedError;
+
+  AsyncOperation(Consumer<Throwable> recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Record the operation, only the first call is recorded
+   *
+   * @param error the error of the operation or null if it succeeded or only reported errors
+   */
+  public void complete(Throwable error) {
+    if (this.recorder != null && this.done.compareAndSet(false, true)) {
+      this.recorder.accept(error != null ? error : this.reportedError);
+    }
+  }
+
+  /**
+   * Wrap the work of the operation, errors which are reported while it runs belong to the
+   * operation and it is recorded once the work is done
+   *
+   * @param task the work
+   * @return the wrapped work
+   */
+  public Runnable wrap(Runnable task) {
+    if (this.recorder == null) {
+      return task;
+    }
+
+    return () -> {
+      AsyncOperation previous = AsyncOperation.enter(this);
+      Throwable failure = null;
+      try {
+        task.run();
+      } catch (Throwable throwable) {
+        failure = throwable;
+        throw throwable;
+      } finally {
+        AsyncOperation.exit(previous);
+        this.complete(failure);
+      }
+    };
+  }
+
+  boolean isHandedOver() {
+    return this.handedOver;
+  }
+
+  void handOver() {
+    this.handedOver = true;
+  }
+
+  void report(Throwable error) {
+    if (this.reportedError == null) {
+      this.reportedError = error;
+    }
+  }
+
+  static AsyncOperation current() {
+    return AsyncOperation.CURRENT.get();
+  }
+
+  static AsyncOperation enter(AsyncOperation operation) {
+    AsyncOperation previous = AsyncOperation.CURRENT.get();
+    AsyncOperation.CURRENT.set(operation);
+    return previous;
+  }
+
+  static void exit(AsyncOperation previous) {
+    if (previous == null) {
+      AsyncOperation.CURRENT.remove();
+    } else {
+      AsyncOperation.CURRENT.set(previous);
+    }
+  }
+}
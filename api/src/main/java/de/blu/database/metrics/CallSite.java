@@ -0,0 +1,68 @@
+package de.blu.database.metrics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The thread and stack of the code which started a storage operation */
+@Getter
+public final class CallSite {
+
+  // frames of these packages are skipped, the first frame after them is the caller
+  private static final String[] INTERNAL_PACKAGES = {
+    "de.blu.database.",
+    "java.",
+    "javax.",
+    "sun.",
+    "jdk.",
+    "com.sun.",
+    "com.mysql.",
+    "com.datastax.",
+    "com.google.",
+    "io.lettuce.",
+    "io.netty.",
+    "reactor."
+  };
+
+  private final String threadName;
+  private final StackTraceElement[] stackTrace;
+
+  public CallSite() {
+    this.threadName = Thread.currentThread().getName();
+    this.stackTrace = new Throwable().getStackTrace();
+  }
+
+  /**
+   * Get the frames of the caller, starting at the first frame outside of the database system and
+   * the drivers
+   *
+   * @param maxFrames the maximum amount of frames
+   * @return the frames
+   */
+  public List<String> getCallerFrames(int maxFrames) {
+    List<String> frames = new ArrayList<>(maxFrames);
+    for (StackTraceElement element : this.stackTrace) {
+      if (frames.isEmpty() && CallSite.isInternal(element.getClassName())) {
+        continue;
+      }
+
+      frames.add(element.toString());
+      if (frames.size() >= maxFrames) {
+        break;
+      }
+    }
+
+    return frames;
+  }
+
+  private static boolean isInternal(String className) {
+    for (String internalPackage : INTERNAL_PACKAGES) {
+      if (className.startsWith(internalPackage)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
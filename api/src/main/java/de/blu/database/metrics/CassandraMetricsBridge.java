@@ -0,0 +1,108 @@
+package de.blu.database.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Timer;
+import com.datastax.driver.core.Cluster;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mirrors the metrics-core metrics of the Cassandra driver (connections, request timer, errors)
+ * as gauges named cassandra.driver.name into a MetricsRegistry
+ */
+public final class CassandraMetricsBridge extends MetricRegistryListener.Base {
+
+  private static final String PREFIX = "cassandra.driver.";
+
+  private final MetricsRegistry registry;
+
+  private CassandraMetricsBridge(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Bridge the driver metrics of a cluster, metrics added later by the driver are bridged too
+   *
+   * @param registry the registry to register the gauges in
+   * @param cluster the cluster
+   */
+  public static void bind(MetricsRegistry registry, Cluster cluster) {
+    if (cluster.getMetrics() == null) {
+      // the cluster was built withoutMetrics()
+      return;
+    }
+
+    // adding a listener replays all existing metrics to it
+    cluster.getMetrics().getRegistry().addListener(new CassandraMetricsBridge(registry));
+  }
+
+  @Override
+  public void onGaugeAdded(String name, Gauge<?> gauge) {
+    this.registry.registerGauge(
+        PREFIX + name,
+        () -> {
+          Object value = gauge.getValue();
+          return value instanceof Number ? (Number) value : null;
+        });
+  }
+
+  @Override
+  public void onGaugeRemoved(String name) {
+    this.registry.removeGauge(PREFIX + name);
+  }
+
+  @Override
+  public void onCounterAdded(String name, Counter counter) {
+    this.registry.registerGauge(PREFIX + name, counter::getCount);
+  }
+
+  @Override
+  public void onCounterRemoved(String name) {
+    this.registry.removeGauge(PREFIX + name);
+  }
+
+  @Override
+  public void onHistogramAdded(String name, Histogram histogram) {
+    this.registry.registerGauge(PREFIX + name + ".count", histogram::getCount);
+    this.registry.registerGauge(
+        PREFIX + name + ".p99", () -> histogram.getSnapshot().get99thPercentile());
+  }
+
+  @Override
+  public void onHistogramRemoved(String name) {
+    this.registry.removeGauge(PREFIX + name + ".count");
+    this.registry.removeGauge(PREFIX + name + ".p99");
+  }
+
+  @Override
+  public void onMeterAdded(String name, Meter meter) {
+    this.registry.registerGauge(PREFIX + name + ".count", meter::getCount);
+    this.registry.registerGauge(PREFIX + name + ".oneMinuteRate", meter::getOneMinuteRate);
+  }
+
+  @Override
+  public void onMeterRemoved(String name) {
+    this.registry.removeGauge(PREFIX + name + ".count");
+    this.registry.removeGauge(PREFIX + name + ".oneMinuteRate");
+  }
+
+  @Override
+  public void onTimerAdded(String name, Timer timer) {
+    this.registry.registerGauge(PREFIX + name + ".count", timer::getCount);
+    this.registry.registerGauge(PREFIX + name + ".oneMinuteRate", timer::getOneMinuteRate);
+    this.registry.registerGauge(
+        PREFIX + name + ".p99Millis",
+        () -> timer.getSnapshot().get99thPercentile() / TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  @Override
+  public void onTimerRemoved(String name) {
+    this.registry.removeGauge(PREFIX + name + ".count");
+    this.registry.removeGauge(PREFIX + name + ".oneMinuteRate");
+    this.registry.removeGauge(PREFIX + name + ".p99Millis");
+  }
+}
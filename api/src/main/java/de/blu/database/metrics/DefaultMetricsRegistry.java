@@ -0,0 +1,44 @@
+package de.blu.database.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/** Keeps all metrics in memory */
+public final class DefaultMetricsRegistry implements MetricsRegistry {
+
+  private final Map<MetricKey, OperationMetrics> operations = new ConcurrentHashMap<>();
+  private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+
+  @Override
+  public OperationMetrics getOperation(MetricKey key) {
+    OperationMetrics operationMetrics = this.operations.get(key);
+    if (operationMetrics != null) {
+      return operationMetrics;
+    }
+
+    return this.operations.computeIfAbsent(key, OperationMetrics::new);
+  }
+
+  @Override
+  public Collection<OperationMetrics> getOperations() {
+    return Collections.unmodifiableCollection(this.operations.values());
+  }
+
+  @Override
+  public void registerGauge(String name, Supplier<Number> gauge) {
+    this.gauges.put(name, gauge);
+  }
+
+  @Override
+  public void removeGauge(String name) {
+    this.gauges.remove(name);
+  }
+
+  @Override
+  public Map<String, Supplier<Number>> getGauges() {
+    return Collections.unmodifiableMap(this.gauges);
+  }
+}
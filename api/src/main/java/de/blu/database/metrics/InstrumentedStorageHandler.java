@@ -0,0 +1,160 @@
+package de.blu.database.metrics;
+
+import de.blu.database.storage.KeyValueStorage;
+import de.blu.database.storage.TableStorage;
+import de.blu.database.storage.pubsub.PubSub;
+import de.blu.database.storage.stream.StreamStorage;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** Records every storage operation of the wrapped storage in the Metrics registry */
+final class InstrumentedStorageHandler implements InvocationHandler {
+
+  private static final Set<Class<?>> INSTRUMENTED_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              TableStorage.class, KeyValueStorage.class, PubSub.class, StreamStorage.class));
+
+  // TableStorage methods which take a query instead of a table name as first parameter
+  private static final Set<String> QUERY_OPERATIONS =
+      new HashSet<>(Arrays.asList("getData", "getResultTable", "stream"));
+
+  // method -> index of the table name parameter, -1 if there is none, null if not instrumented
+  private static final Map<Method, Integer> TABLE_INDEXES = new ConcurrentHashMap<>();
+  private static final Integer NOT_INSTRUMENTED = Integer.MIN_VALUE;
+
+  private final Object storage;
+  private final String backend;
+
+  InstrumentedStorageHandler(Object storage, String backend) {
+    this.storage = storage;
+    this.backend = backend;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    int tableIndex =
+        InstrumentedStorageHandler.TABLE_INDEXES.computeIfAbsent(
+            method, InstrumentedStorageHandler::tableIndexOf);
+    if (tableIndex == NOT_INSTRUMENTED) {
+      return this.call(method, args);
+    }
+
+    String table =
+        tableIndex >= 0 && args[tableIndex] instanceof String ? (String) args[tableIndex] : "";
+    MetricKey key = new MetricKey(this.backend, method.getName(), table);
+    for (OperationListener listener : Metrics.getListeners()) {
+      listener.onStart(key);
+    }
+
+    OperationMetrics operationMetrics = Metrics.getRegistry().getOperation(key);
+    long startNanos = operationMetrics.start();
+    AsyncOperation operation =
+        new AsyncOperation(error -> this.stop(operationMetrics, startNanos, error));
+    boolean voidAsync =
+        method.getReturnType() == void.class && method.getName().endsWith("Async");
+
+    Object result;
+    AsyncOperation previous = AsyncOperation.enter(operation);
+    try {
+      result = this.call(method, voidAsync ? this.completeOnConsumer(args, operation) : args);
+    } catch (Throwable throwable) {
+      operation.complete(throwable);
+      throw throwable;
+    } finally {
+      AsyncOperation.exit(previous);
+      this.returned(key, System.nanoTime() - startNanos);
+    }
+
+    if (result instanceof CompletableFuture) {
+      ((CompletableFuture<?>) result)
+          .whenComplete((value, throwable) -> operation.complete(throwable));
+    } else if (!voidAsync || !operation.isHandedOver()) {
+      operation.complete(null);
+    }
+
+    return result;
+  }
+
+  /**
+   * Replace the Consumer of a void async operation, so the operation is recorded when the result
+   * is handed to it and the time of the Consumer itself is not part of the operation
+   */
+  private Object[] completeOnConsumer(Object[] args, AsyncOperation operation) {
+    if (args == null) {
+      return null;
+    }
+
+    Object[] wrappedArgs = args.clone();
+    for (int i = 0; i < wrappedArgs.length; i++) {
+      if (wrappedArgs[i] instanceof Consumer) {
+        Consumer<Object> consumer = InstrumentedStorageHandler.uncheckedConsumer(wrappedArgs[i]);
+        wrappedArgs[i] =
+            (Consumer<Object>)
+                value -> {
+                  operation.complete(null);
+                  consumer.accept(value);
+                };
+      }
+    }
+
+    return wrappedArgs;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Consumer<Object> uncheckedConsumer(Object consumer) {
+    return (Consumer<Object>) consumer;
+  }
+
+  private Object call(Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(this.storage, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void returned(MetricKey key, long durationNanos) {
+    for (OperationListener listener : Metrics.getListeners()) {
+      try {
+        listener.onReturn(key, durationNanos);
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private void stop(OperationMetrics operationMetrics, long startNanos, Throwable error) {
+    long durationNanos = operationMetrics.stop(startNanos, error);
+    for (OperationListener listener : Metrics.getListeners()) {
+      try {
+        listener.onEnd(operationMetrics.getKey(), durationNanos, error);
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private static Integer tableIndexOf(Method method) {
+    if (!InstrumentedStorageHandler.INSTRUMENTED_TYPES.contains(method.getDeclaringClass())) {
+      return NOT_INSTRUMENTED;
+    }
+
+    if (method.getDeclaringClass() != TableStorage.class
+        || InstrumentedStorageHandler.QUERY_OPERATIONS.contains(method.getName())
+        || method.getParameterCount() == 0) {
+      return -1;
+    }
+
+    return 0;
+  }
+}
@@ -0,0 +1,157 @@
+package de.blu.database.metrics;
+
+import lombok.Getter;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Exports the MetricsRegistry as one MBean, de.blu.database:type=Metrics. The attributes are read
+ * from the registry on every request, so operations used after the export show up as well
+ */
+@Getter
+public final class JmxMetricsExporter implements DynamicMBean {
+
+  private static final String OBJECT_NAME = "de.blu.database:type=Metrics";
+
+  private final ObjectName objectName;
+
+  public JmxMetricsExporter() {
+    try {
+      this.objectName = new ObjectName(OBJECT_NAME);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Register the MBean, an MBean of an earlier instance is replaced */
+  public void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      if (server.isRegistered(this.getObjectName())) {
+        server.unregisterMBean(this.getObjectName());
+      }
+
+      server.registerMBean(this, this.getObjectName());
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /** Unregister the MBean */
+  public void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      if (server.isRegistered(this.getObjectName())) {
+        server.unregisterMBean(this.getObjectName());
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    Object value = this.readAttributes().get(attribute);
+    if (value == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+
+    return value;
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    Map<String, Object> values = this.readAttributes();
+    AttributeList attributeList = new AttributeList();
+    for (String attribute : attributes) {
+      if (values.containsKey(attribute)) {
+        attributeList.add(new Attribute(attribute, values.get(attribute)));
+      }
+    }
+
+    return attributeList;
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) {
+    throw new UnsupportedOperationException("Metrics are read only");
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature) {
+    throw new UnsupportedOperationException(actionName);
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    Map<String, Object> values = this.readAttributes();
+    MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+    int index = 0;
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      attributes[index++] =
+          new MBeanAttributeInfo(
+              entry.getKey(),
+              entry.getValue().getClass().getName(),
+              entry.getKey(),
+              true,
+              false,
+              false);
+    }
+
+    return new MBeanInfo(
+        JmxMetricsExporter.class.getName(),
+        "Database operation metrics",
+        attributes,
+        null,
+        null,
+        null);
+  }
+
+  private Map<String, Object> readAttributes() {
+    MetricsRegistry registry = Metrics.getRegistry();
+    Map<String, Object> values = new TreeMap<>();
+
+    for (OperationMetrics operationMetrics : registry.getOperations()) {
+      String prefix = operationMetrics.getKey().toString() + ".";
+      LatencyHistogram latency = operationMetrics.getLatency();
+
+      values.put(prefix + "count", operationMetrics.getCallCount().sum());
+      values.put(prefix + "errors", operationMetrics.getErrorCount().sum());
+      values.put(prefix + "inFlight", operationMetrics.getInFlight().get());
+      values.put(prefix + "meanMillis", latency.getMeanMillis());
+      values.put(prefix + "p50Millis", latency.getPercentileMillis(50));
+      values.put(prefix + "p99Millis", latency.getPercentileMillis(99));
+      values.put(prefix + "p999Millis", latency.getPercentileMillis(99.9));
+      values.put(prefix + "maxMillis", latency.getMaxMillis());
+    }
+
+    for (Map.Entry<String, Supplier<Number>> entry : registry.getGauges().entrySet()) {
+      try {
+        Number value = entry.getValue().get();
+        if (value != null) {
+          values.put(entry.getKey(), value);
+        }
+      } catch (Exception e) {
+        // a gauge of a closed connection, skip it
+      }
+    }
+
+    return values;
+  }
+}
@@ -0,0 +1,122 @@
+package de.blu.database.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free latency histogram with log-linear buckets like HdrHistogram. Every power of two is
+ * split into 32 buckets, so a percentile is at most about 3% off while the whole range from one
+ * microsecond up to 19 hours fits into 1056 counters
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_MAGNITUDE = 36;
+  private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+  private static final int BUCKET_COUNT =
+      (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + 2 * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Record a duration
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long micros = Math.min(MAX_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+
+    this.buckets.incrementAndGet(LatencyHistogram.indexOf(micros));
+    this.count.increment();
+    this.totalMicros.add(micros);
+    this.maxMicros.accumulateAndGet(micros, Math::max);
+  }
+
+  /**
+   * Get the amount of recorded durations
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /**
+   * Get the average of all recorded durations
+   *
+   * @return the mean in milliseconds
+   */
+  public double getMeanMillis() {
+    long count = this.count.sum();
+    return count == 0 ? 0 : this.totalMicros.sum() / 1000D / count;
+  }
+
+  /**
+   * Get the longest recorded duration
+   *
+   * @return the max in milliseconds
+   */
+  public double getMaxMillis() {
+    return this.maxMicros.get() / 1000D;
+  }
+
+  /**
+   * Get the duration below which the given percentage of all recorded durations are
+   *
+   * @param percentile the percentile between 0 and 100, e.g. 99.9
+   * @return the duration in milliseconds
+   */
+  public double getPercentileMillis(double percentile) {
+    long[] counts = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = this.buckets.get(i);
+      total += counts[i];
+    }
+
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100D * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(LatencyHistogram.valueOf(i), this.maxMicros.get()) / 1000D;
+      }
+    }
+
+    return this.getMaxMillis();
+  }
+
+  /** Remove all recorded durations */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.buckets.set(i, 0);
+    }
+
+    this.count.reset();
+    this.totalMicros.reset();
+    this.maxMicros.set(0);
+  }
+
+  private static int indexOf(long micros) {
+    int magnitude = 63 - Long.numberOfLeadingZeros(micros | 1);
+    int shift = Math.max(0, magnitude - SUB_BUCKET_BITS);
+    return (int) ((shift << SUB_BUCKET_BITS) + (micros >>> shift));
+  }
+
+  // the middle of the range of values which are counted in the bucket
+  private static long valueOf(int index) {
+    int shift = Math.max(0, (index >>> SUB_BUCKET_BITS) - 1);
+    long lowest = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+    return lowest + ((1L << shift) >>> 1);
+  }
+}
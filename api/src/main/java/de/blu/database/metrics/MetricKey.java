@@ -0,0 +1,24 @@
+package de.blu.database.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/** Identifies the metrics of one operation of a backend, optionally for a single table */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public final class MetricKey {
+
+  private final String backend;
+  private final String operation;
+  // empty if the operation does not work on a table
+  private final String table;
+
+  @Override
+  public String toString() {
+    return this.getTable().isEmpty()
+        ? this.getBackend() + "." + this.getOperation()
+        : this.getBackend() + "." + this.getOperation() + "." + this.getTable();
+  }
+}
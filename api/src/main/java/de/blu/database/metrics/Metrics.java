@@ -0,0 +1,102 @@
+package de.blu.database.metrics;
+
+import lombok.Getter;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Entry point of the metrics of all backends */
+public final class Metrics {
+
+  @Getter private static volatile MetricsRegistry registry = new DefaultMetricsRegistry();
+  private static final Collection<OperationListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+  private Metrics() {}
+
+  /**
+   * Replace the registry, only operations after this call are recorded in the new one
+   *
+   * @param registry the new registry
+   */
+  public static void setRegistry(MetricsRegistry registry) {
+    Metrics.registry = registry;
+  }
+
+  /**
+   * Add a listener which is notified about every instrumented operation
+   *
+   * @param listener the listener
+   */
+  public static void addListener(OperationListener listener) {
+    Metrics.LISTENERS.add(listener);
+  }
+
+  /**
+   * Remove a listener
+   *
+   * @param listener the listener
+   */
+  public static void removeListener(OperationListener listener) {
+    Metrics.LISTENERS.remove(listener);
+  }
+
+  /**
+   * Get all listeners
+   *
+   * @return the listeners
+   */
+  public static Collection<OperationListener> getListeners() {
+    return Collections.unmodifiableCollection(Metrics.LISTENERS);
+  }
+
+  /**
+   * Take over the void async operation which is running on this thread. The operation is not
+   * recorded when its method returns, the storage completes it once the work is done
+   *
+   * @return the operation, a no-op operation if none is running on this thread
+   */
+  public static AsyncOperation handOver() {
+    AsyncOperation operation = AsyncOperation.current();
+    if (operation == null) {
+      return AsyncOperation.NONE;
+    }
+
+    operation.handOver();
+    return operation;
+  }
+
+  /**
+   * Count an error which a storage handled itself, e.g. by logging it, as error of the operation
+   * which is running on this thread. Does nothing if no instrumented operation is running
+   *
+   * @param error the error
+   */
+  public static void reportError(Throwable error) {
+    AsyncOperation operation = AsyncOperation.current();
+    if (operation != null) {
+      operation.report(error);
+    }
+  }
+
+  /**
+   * Wrap a storage so every TableStorage, KeyValueStorage, PubSub and StreamStorage operation is
+   * recorded. Operations which return a CompletableFuture are recorded once the future completes,
+   * void async operations once their consumer is called or the storage completes them, the other
+   * ones when the method returns
+   *
+   * @param type the interface of the storage, e.g. MySQLConnection.class
+   * @param storage the storage
+   * @param backend the name of the backend, e.g. mysql
+   * @param <T> the type of the storage
+   * @return the instrumented storage
+   */
+  public static <T> T instrument(Class<T> type, T storage, String backend) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            new InstrumentedStorageHandler(storage, backend)));
+  }
+}
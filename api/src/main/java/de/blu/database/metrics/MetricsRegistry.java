@@ -0,0 +1,49 @@
+package de.blu.database.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Holds the OperationMetrics and gauges of all backends. Set an own implementation with
+ * Metrics.setRegistry to forward the values into another metrics system
+ */
+public interface MetricsRegistry {
+
+  /**
+   * Get the metrics of an operation, they are created on first use
+   *
+   * @param key the key of the operation
+   * @return the metrics
+   */
+  OperationMetrics getOperation(MetricKey key);
+
+  /**
+   * Get the metrics of all operations which were used so far
+   *
+   * @return the metrics
+   */
+  Collection<OperationMetrics> getOperations();
+
+  /**
+   * Register a gauge which is read whenever the metrics are exported
+   *
+   * @param name the name, e.g. cassandra.driver.connected-to
+   * @param gauge supplies the current value
+   */
+  void registerGauge(String name, Supplier<Number> gauge);
+
+  /**
+   * Remove a gauge
+   *
+   * @param name the name of the gauge
+   */
+  void removeGauge(String name);
+
+  /**
+   * Get all gauges by their name
+   *
+   * @return the gauges
+   */
+  Map<String, Supplier<Number>> getGauges();
+}
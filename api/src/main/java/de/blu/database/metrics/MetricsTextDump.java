@@ -0,0 +1,102 @@
+package de.blu.database.metrics;
+
+import de.blu.database.util.DatabaseExecutor;
+import de.blu.database.util.DatabaseExecutors;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/** Formats the MetricsRegistry and the executors as a plain text table, e.g. for a command */
+public final class MetricsTextDump {
+
+  private static final String ROW_FORMAT =
+      "%-10s %-22s %-20s %10s %7s %8s %9s %9s %9s %9s %9s%n";
+
+  private MetricsTextDump() {}
+
+  /**
+   * Dump the metrics of the current registry
+   *
+   * @return the metrics as text
+   */
+  public static String dump() {
+    return MetricsTextDump.dump(Metrics.getRegistry());
+  }
+
+  /**
+   * Dump the metrics of a registry
+   *
+   * @param registry the registry
+   * @return the metrics as text
+   */
+  public static String dump(MetricsRegistry registry) {
+    StringBuilder builder = new StringBuilder();
+    builder.append(
+        String.format(
+            ROW_FORMAT,
+            "backend",
+            "operation",
+            "table",
+            "count",
+            "errors",
+            "inFlight",
+            "mean ms",
+            "p50 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms"));
+
+    List<OperationMetrics> operations = new ArrayList<>(registry.getOperations());
+    operations.sort(Comparator.comparing(operationMetrics -> operationMetrics.getKey().toString()));
+    for (OperationMetrics operationMetrics : operations) {
+      MetricKey key = operationMetrics.getKey();
+      LatencyHistogram latency = operationMetrics.getLatency();
+      builder.append(
+          String.format(
+              ROW_FORMAT,
+              key.getBackend(),
+              key.getOperation(),
+              key.getTable().isEmpty() ? "-" : key.getTable(),
+              operationMetrics.getCallCount().sum(),
+              operationMetrics.getErrorCount().sum(),
+              operationMetrics.getInFlight().get(),
+              MetricsTextDump.format(latency.getMeanMillis()),
+              MetricsTextDump.format(latency.getPercentileMillis(50)),
+              MetricsTextDump.format(latency.getPercentileMillis(99)),
+              MetricsTextDump.format(latency.getPercentileMillis(99.9)),
+              MetricsTextDump.format(latency.getMaxMillis())));
+    }
+
+    Map<String, Supplier<Number>> gauges = new TreeMap<>(registry.getGauges());
+    if (!gauges.isEmpty()) {
+      builder.append(System.lineSeparator());
+      for (Map.Entry<String, Supplier<Number>> entry : gauges.entrySet()) {
+        Number value;
+        try {
+          value = entry.getValue().get();
+        } catch (Exception e) {
+          value = null;
+        }
+
+        builder.append(entry.getKey()).append(" = ").append(value).append(System.lineSeparator());
+      }
+    }
+
+    if (!DatabaseExecutors.getExecutors().isEmpty()) {
+      builder.append(System.lineSeparator());
+      for (DatabaseExecutor executor : DatabaseExecutors.getExecutors()) {
+        builder.append(executor).append(System.lineSeparator());
+      }
+    }
+
+    return builder.toString();
+  }
+
+  private static String format(double millis) {
+    return String.format("%.3f", millis);
+  }
+}
@@ -0,0 +1,34 @@
+package de.blu.database.metrics;
+
+/**
+ * Gets notified about every instrumented storage operation. onStart and onReturn are called on the
+ * thread which calls the operation, throwing an exception in onStart aborts the operation
+ */
+public interface OperationListener {
+
+  /**
+   * Called before an operation is run
+   *
+   * @param key the key of the operation
+   */
+  default void onStart(MetricKey key) {}
+
+  /**
+   * Called when the method of an operation returned or threw, for futures and void async operations
+   * this is before their work is done
+   *
+   * @param key the key of the operation
+   * @param durationNanos how long the calling thread was inside of the method
+   */
+  default void onReturn(MetricKey key, long durationNanos) {}
+
+  /**
+   * Called after an operation is done, for futures once the future is completed and for void async
+   * operations once their work is done, which can be on another thread
+   *
+   * @param key the key of the operation
+   * @param durationNanos how long the operation took
+   * @param error the error of the operation or null if it succeeded
+   */
+  default void onEnd(MetricKey key, long durationNanos, Throwable error) {}
+}
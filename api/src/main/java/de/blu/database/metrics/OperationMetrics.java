@@ -0,0 +1,51 @@
+package de.blu.database.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters, in-flight gauge and latency histogram of one MetricKey */
+@Getter
+public final class OperationMetrics {
+
+  private final MetricKey key;
+  private final LongAdder callCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  public OperationMetrics(MetricKey key) {
+    this.key = key;
+  }
+
+  /**
+   * Mark the start of an operation
+   *
+   * @return the start time to pass to stop
+   */
+  public long start() {
+    this.inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Mark the end of an operation
+   *
+   * @param startNanos the start time returned by start
+   * @param error the error of the operation or null if it succeeded
+   * @return the duration of the operation in nanoseconds
+   */
+  public long stop(long startNanos, Throwable error) {
+    long durationNanos = System.nanoTime() - startNanos;
+
+    this.inFlight.decrementAndGet();
+    this.callCount.increment();
+    if (error != null) {
+      this.errorCount.increment();
+    }
+
+    this.latency.record(durationNanos);
+    return durationNanos;
+  }
+}
@@ -0,0 +1,58 @@
+package de.blu.database.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/** An operation which took longer than the threshold of its SlowOperationRecorder */
+@Getter
+@AllArgsConstructor
+public final class SlowOperation {
+
+  private static final DateTimeFormatter TIME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+  private final long timestamp;
+  private final String backend;
+  private final String operation;
+  private final String statement;
+  // -1 if the amount of rows is unknown
+  private final long rows;
+  private final long durationNanos;
+  private final String threadName;
+  private final List<String> callerFrames;
+  // null if the operation succeeded
+  private final String error;
+
+  @Override
+  public String toString() {
+    StringBuilder builder =
+        new StringBuilder()
+            .append(TIME_FORMAT.format(Instant.ofEpochMilli(this.getTimestamp())))
+            .append(' ')
+            .append(this.getBackend())
+            .append(' ')
+            .append(this.getOperation())
+            .append(' ')
+            .append(String.format("%.1f ms", this.getDurationNanos() / 1_000_000D))
+            .append(" rows=")
+            .append(this.getRows())
+            .append(" thread=")
+            .append(this.getThreadName());
+
+    if (this.getError() != null) {
+      builder.append(" error=").append(this.getError());
+    }
+
+    builder.append(System.lineSeparator()).append("  ").append(this.getStatement());
+    for (String frame : this.getCallerFrames()) {
+      builder.append(System.lineSeparator()).append("    at ").append(frame);
+    }
+
+    return builder.toString();
+  }
+}
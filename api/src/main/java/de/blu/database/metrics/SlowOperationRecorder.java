@@ -0,0 +1,300 @@
+package de.blu.database.metrics;
+
+import de.blu.database.util.BoundedExecutor;
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the last operations of a backend which took longer than a threshold in a ring buffer,
+ * together with their normalized statement, row count and call site. Optionally every slow
+ * operation is appended to a log file on a background thread, the file is rolled over at 10 MB
+ */
+@Getter
+public final class SlowOperationRecorder {
+
+  private static final Set<SlowOperationRecorder> RECORDERS = new CopyOnWriteArraySet<>();
+  private static final ThreadLocal<CallSite> CURRENT_CALL_SITE = new ThreadLocal<>();
+
+  private static final int CALLER_FRAMES = 8;
+  private static final long MAX_FILE_BYTES = 10 * 1024 * 1024;
+  private static final int WRITE_QUEUE_SIZE = 1024;
+
+  private static final Pattern UUID =
+      Pattern.compile("[0-9a-fA-F]{8}(?:-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}");
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER =
+      Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+  private static final Pattern PLACEHOLDER_LIST =
+      Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final String backend;
+  private final long thresholdNanos;
+  private final AtomicReferenceArray<SlowOperation> buffer;
+  private final AtomicLong position = new AtomicLong();
+  private final LongAdder recordedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+  private final File file;
+  private final BoundedExecutor fileWriter;
+
+  /**
+   * Create a SlowOperationRecorder
+   *
+   * @param backend the name of the backend, e.g. mysql
+   * @param thresholdMillis operations taking at least this long are recorded, 0 to disable
+   * @param bufferSize how many of the latest slow operations are kept
+   * @param fileName the log file or an empty String to only keep the ring buffer
+   */
+  public SlowOperationRecorder(
+      String backend, int thresholdMillis, int bufferSize, String fileName) {
+    this.backend = backend;
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+    this.buffer = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+
+    if (this.isEnabled() && fileName != null && !fileName.isEmpty()) {
+      this.file = new File(fileName);
+      this.fileWriter =
+          new BoundedExecutor(
+              backend + "-slow-log", 1, WRITE_QUEUE_SIZE, BoundedExecutor.RejectionPolicy.ABORT);
+    } else {
+      this.file = null;
+      this.fileWriter = null;
+    }
+
+    if (this.isEnabled()) {
+      SlowOperationRecorder.RECORDERS.add(this);
+    }
+  }
+
+  /**
+   * Get all enabled recorders which are not closed
+   *
+   * @return the recorders
+   */
+  public static Collection<SlowOperationRecorder> getRecorders() {
+    return Collections.unmodifiableSet(SlowOperationRecorder.RECORDERS);
+  }
+
+  /**
+   * Dump the slow operations of all recorders
+   *
+   * @return the slow operations as text, oldest first
+   */
+  public static String dumpAll() {
+    StringBuilder builder = new StringBuilder();
+    for (SlowOperationRecorder recorder : SlowOperationRecorder.RECORDERS) {
+      builder.append(recorder.dump());
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Replace the literals of a statement or key with ?, so all executions of the same query fall
+   * into the same shape
+   *
+   * @param statement the statement, e.g. SELECT * FROM players WHERE name = 'Blu'
+   * @return the shape, e.g. SELECT * FROM players WHERE name = ?
+   */
+  public static String normalize(String statement) {
+    if (statement == null) {
+      return "";
+    }
+
+    String shape = UUID.matcher(statement).replaceAll("?");
+    shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+    shape = NUMBER.matcher(shape).replaceAll("?");
+    shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("(?...)");
+    return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+  }
+
+  public boolean isEnabled() {
+    return this.thresholdNanos > 0;
+  }
+
+  /**
+   * Get the call site to record for an operation started on the current thread. Inside a task
+   * wrapped with wrap this is the call site of the code which submitted the task
+   *
+   * @return the call site or null if the recorder is disabled
+   */
+  public CallSite capture() {
+    if (!this.isEnabled()) {
+      return null;
+    }
+
+    CallSite callSite = SlowOperationRecorder.CURRENT_CALL_SITE.get();
+    return callSite != null ? callSite : new CallSite();
+  }
+
+  /**
+   * Wrap a task which is submitted to an executor, so slow operations of the task are recorded
+   * with the call site of the submitting code instead of the executor thread
+   *
+   * @param task the task
+   * @return the wrapped task or the task itself if the recorder is disabled
+   */
+  public Runnable wrap(Runnable task) {
+    if (!this.isEnabled()) {
+      return task;
+    }
+
+    CallSite callSite = this.capture();
+    return () -> {
+      CallSite previous = SlowOperationRecorder.CURRENT_CALL_SITE.get();
+      SlowOperationRecorder.CURRENT_CALL_SITE.set(callSite);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          SlowOperationRecorder.CURRENT_CALL_SITE.remove();
+        } else {
+          SlowOperationRecorder.CURRENT_CALL_SITE.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * Record an operation if it took longer than the threshold
+   *
+   * @param operation the operation, e.g. SELECT or GET
+   * @param statement the statement, it is normalized before it is stored
+   * @param rows the amount of returned or changed rows, -1 if unknown
+   * @param startNanos the System.nanoTime when the operation started
+   * @param callSite the call site from capture or null to use the current thread
+   * @param error the error of the operation or null if it succeeded
+   */
+  public void record(
+      String operation,
+      String statement,
+      long rows,
+      long startNanos,
+      CallSite callSite,
+      Throwable error) {
+    long durationNanos = System.nanoTime() - startNanos;
+    if (!this.isEnabled() || durationNanos < this.thresholdNanos) {
+      return;
+    }
+
+    if (callSite == null) {
+      callSite = this.capture();
+    }
+
+    SlowOperation slowOperation =
+        new SlowOperation(
+            System.currentTimeMillis(),
+            this.getBackend(),
+            operation,
+            SlowOperationRecorder.normalize(statement),
+            rows,
+            durationNanos,
+            callSite.getThreadName(),
+            callSite.getCallerFrames(CALLER_FRAMES),
+            error == null ? null : error.toString());
+
+    int index = (int) (this.position.getAndIncrement() % this.buffer.length());
+    this.buffer.set(index, slowOperation);
+    this.recordedCount.increment();
+
+    if (this.fileWriter != null) {
+      try {
+        this.fileWriter.execute(() -> this.append(slowOperation));
+      } catch (RejectedExecutionException e) {
+        this.droppedCount.increment();
+      }
+    }
+  }
+
+  /**
+   * Get the slow operations in the ring buffer
+   *
+   * @return the slow operations, oldest first
+   */
+  public List<SlowOperation> getEntries() {
+    long end = this.position.get();
+    long start = Math.max(0, end - this.buffer.length());
+
+    List<SlowOperation> entries = new ArrayList<>((int) (end - start));
+    for (long i = start; i < end; i++) {
+      SlowOperation slowOperation = this.buffer.get((int) (i % this.buffer.length()));
+      if (slowOperation != null) {
+        entries.add(slowOperation);
+      }
+    }
+
+    return entries;
+  }
+
+  /**
+   * Dump the slow operations in the ring buffer
+   *
+   * @return the slow operations as text, oldest first
+   */
+  public String dump() {
+    StringBuilder builder = new StringBuilder();
+    for (SlowOperation slowOperation : this.getEntries()) {
+      builder.append(slowOperation).append(System.lineSeparator());
+    }
+
+    return builder.toString();
+  }
+
+  /** Remove all slow operations from the ring buffer */
+  public void clear() {
+    for (int i = 0; i < this.buffer.length(); i++) {
+      this.buffer.set(i, null);
+    }
+  }
+
+  /** Write the queued slow operations to the file and stop recording */
+  public void close() {
+    SlowOperationRecorder.RECORDERS.remove(this);
+    if (this.fileWriter != null) {
+      this.fileWriter.shutdownGracefully(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+
+  private void append(SlowOperation slowOperation) {
+    try {
+      if (this.file.length() >= MAX_FILE_BYTES) {
+        File rolledFile = new File(this.file.getPath() + ".1");
+        if (rolledFile.exists() && !rolledFile.delete()) {
+          throw new IOException("Could not delete " + rolledFile);
+        }
+
+        if (!this.file.renameTo(rolledFile)) {
+          throw new IOException("Could not roll over " + this.file);
+        }
+      }
+
+      File parent = this.file.getAbsoluteFile().getParentFile();
+      if (parent != null && !parent.exists()) {
+        parent.mkdirs();
+      }
+
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(this.file, true))) {
+        writer.write(slowOperation.toString());
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -2,6 +2,8 @@ package de.blu.database.storage;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface KeyValueStorage extends Storage {
 
@@ -18,10 +20,45 @@ public interface KeyValueStorage extends Storage {
    *
    * @param key the key
    * @param value the new Value to set
-   * @param expireSeconds the time in seconds when the key should expire
+   * @param expireSeconds the time in seconds when the key should expire, 0 or less removes it
    */
   void set(String key, String value, int expireSeconds);
 
+  /**
+   * Set the values of multiple Keys with as few requests as possible
+   *
+   * @param values the Keys and the new Values to set
+   */
+  void setMany(Map<String, String> values);
+
+  /**
+   * Set the values of multiple Keys with as few requests as possible and expire after a specified
+   * time
+   *
+   * @param values the Keys and the new Values to set
+   * @param expireSeconds the time in seconds when the keys should expire, 0 or less removes them
+   */
+  void setMany(Map<String, String> values, int expireSeconds);
+
+  /**
+   * Set the value of the Key Async
+   *
+   * @param key the key
+   * @param value the new Value to set
+   * @return future which is completed when the value was set or exceptionally if it failed
+   */
+  CompletableFuture<Void> setFuture(String key, String value);
+
+  /**
+   * Set the value of the Key Async and expire after a specified time
+   *
+   * @param key the key
+   * @param value the new Value to set
+   * @param expireSeconds the time in seconds when the key should expire, 0 or less removes it
+   * @return future which is completed when the value was set or exceptionally if it failed
+   */
+  CompletableFuture<Void> setFuture(String key, String value, int expireSeconds);
+
   /**
    * Remove a Key from Storage
    *
@@ -29,6 +66,14 @@ public interface KeyValueStorage extends Storage {
    */
   void remove(String key);
 
+  /**
+   * Remove a Key Async from Storage
+   *
+   * @param key the Key to remove
+   * @return future which is completed when the Key was removed or exceptionally if it failed
+   */
+  CompletableFuture<Void> removeFuture(String key);
+
   /**
    * Get all child Keys of a given Key (not recursive)
    *
@@ -46,6 +91,15 @@ public interface KeyValueStorage extends Storage {
    */
   Collection<String> getKeys(String key, boolean recursive);
 
+  /**
+   * Get all Keys matching a glob pattern. The Keys are fetched lazily in small steps while the
+   * Stream is consumed, so it can be stopped early without reading the whole keyspace
+   *
+   * @param pattern the glob pattern, for example "player.*"
+   * @return Stream with all matching Keys, a Key may occur more than once
+   */
+  Stream<String> scanKeys(String pattern);
+
   /**
    * Get the String value of a specified Key
    *
@@ -54,6 +108,31 @@ public interface KeyValueStorage extends Storage {
    */
   String get(String key);
 
+  /**
+   * Get the String value of a specified Key Async
+   *
+   * @param key the Key where the Value should get from
+   * @return future which is completed with the value from the Key or null if the key does not
+   *     exist
+   */
+  CompletableFuture<String> getFuture(String key);
+
+  /**
+   * Get the String values of multiple Keys with as few requests as possible
+   *
+   * @param keys the Keys where the Values should get from
+   * @return Map with all existing Keys and their Values, Keys which do not exist are left out
+   */
+  Map<String, String> getMany(Collection<String> keys);
+
+  /**
+   * Get the String values of multiple Keys Async
+   *
+   * @param keys the Keys where the Values should get from
+   * @return future which is completed with all existing Keys and their Values
+   */
+  CompletableFuture<Map<String, String>> getManyFuture(Collection<String> keys);
+
   /**
    * Get a Map with all Data saved in Storage
    *
@@ -69,11 +148,46 @@ public interface KeyValueStorage extends Storage {
    */
   boolean contains(String key);
 
+  /**
+   * Check Async if a specified Key exist in Storage
+   *
+   * @param key the Key to check
+   * @return future which is completed with true if the Key exist or false if not
+   */
+  CompletableFuture<Boolean> containsFuture(String key);
+
+  /**
+   * Check if any Key starting with a prefix exist in Storage. The keyspace is walked until a Key
+   * is found, so a miss costs about one request per scanCount Keys of the whole keyspace
+   *
+   * @param prefix the start of the Keys
+   * @return true if a Key with the prefix exist or false if not
+   */
+  boolean containsPrefix(String prefix);
+
+  /**
+   * Check Async if any Key starting with a prefix exist in Storage
+   *
+   * @param prefix the start of the Keys
+   * @return future which is completed with true if a Key with the prefix exist or false if not
+   */
+  CompletableFuture<Boolean> containsPrefixFuture(String prefix);
+
   /**
    * Get the remaining Time until the Key expire
    *
    * @param key the Key to get the remaining time from
-   * @return the time in seconds, until the Key will expire
+   * @return the time in seconds, until the Key will expire or -1 if the Key does not exist or
+   *     does not expire
    */
   int getRemainingTimeFromKey(String key);
+
+  /**
+   * Get the remaining Time until the Key expire Async
+   *
+   * @param key the Key to get the remaining time from
+   * @return future which is completed with the time in seconds or -1 if the Key does not exist or
+   *     does not expire
+   */
+  CompletableFuture<Integer> getRemainingTimeFromKeyFuture(String key);
 }
@@ -0,0 +1,81 @@
+package de.blu.database.storage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive variant of {@link KeyValueStorage}, nothing is sent before the returned publisher is
+ * subscribed
+ */
+public interface ReactiveKeyValueStorage {
+
+  /**
+   * Set the value of the Key and expire after a specified time
+   *
+   * @param key the key
+   * @param value the new Value to set
+   * @param expireSeconds the time in seconds when the key should expire, 0 or less removes it
+   * @return Mono which completes when the value was set
+   */
+  Mono<Void> set(String key, String value, int expireSeconds);
+
+  /**
+   * Remove a Key from Storage
+   *
+   * @param key the Key to remove
+   * @return Mono which completes when the Key was removed
+   */
+  Mono<Void> remove(String key);
+
+  /**
+   * Get the String value of a specified Key
+   *
+   * @param key the Key where the Value should get from
+   * @return Mono with the value or an empty Mono if the key does not exist
+   */
+  Mono<String> get(String key);
+
+  /**
+   * Get the String values of multiple Keys
+   *
+   * @param keys the Keys where the Values should get from
+   * @return Flux with all existing Keys and their Values
+   */
+  Flux<Map.Entry<String, String>> getMany(Collection<String> keys);
+
+  /**
+   * Get all Keys matching a glob pattern, the Keys are fetched step by step on demand
+   *
+   * @param pattern the glob pattern, for example "player.*"
+   * @return Flux with all matching Keys, a Key may occur more than once
+   */
+  Flux<String> scanKeys(String pattern);
+
+  /**
+   * Check if a specified Key exist in Storage
+   *
+   * @param key the Key to check
+   * @return Mono with true if the Key exist or false if not
+   */
+  Mono<Boolean> contains(String key);
+
+  /**
+   * Check if any Key starting with a prefix exist in Storage, the keyspace is walked until a Key
+   * is found
+   *
+   * @param prefix the start of the Keys
+   * @return Mono with true if a Key with the prefix exist or false if not
+   */
+  Mono<Boolean> containsPrefix(String prefix);
+
+  /**
+   * Get the remaining Time until the Key expire
+   *
+   * @param key the Key to get the remaining time from
+   * @return Mono with the time in seconds or -1 if the Key does not exist or does not expire
+   */
+  Mono<Integer> getRemainingTimeFromKey(String key);
+}
@@ -1,10 +1,13 @@
 package de.blu.database.storage;
 
+import de.blu.database.data.ResultTable;
 import de.blu.database.data.TableColumn;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface TableStorage extends Storage {
 
@@ -16,6 +19,32 @@ public interface TableStorage extends Storage {
    */
   Map<Integer, Map<String, Object>> getData(String query);
 
+  /**
+   * Get Data from the query as compact column oriented table
+   *
+   * @param query the query which should use
+   * @return ResultTable with all returned data from the query
+   */
+  ResultTable getResultTable(String query);
+
+  /**
+   * Stream the rows of the query without loading the whole result into memory. The Stream holds
+   * resources of the Storage and has to be closed, e.g. with try-with-resources
+   *
+   * @param query the query which should use
+   * @return Stream of the returned rows
+   */
+  Stream<Map<String, Object>> stream(String query);
+
+  /**
+   * Stream all rows of a table without loading the whole table into memory. The Stream holds
+   * resources of the Storage and has to be closed, e.g. with try-with-resources
+   *
+   * @param tableName the tableName
+   * @return Stream of all rows in the table
+   */
+  Stream<Map<String, Object>> streamAll(String tableName);
+
   /**
    * Get Data as Map from the Database with the SELECT Query
    *
@@ -63,6 +92,28 @@ public interface TableStorage extends Storage {
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer);
 
+  /**
+   * Get Data Async as Map from the Database with the SELECT Query
+   *
+   * @param tableName the tableName
+   * @param keys the keys to get
+   * @return future which is completed with all returned data or exceptionally if the query failed
+   */
+  CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys);
+
+  /**
+   * Get Data Async as Map from the Database with the SELECT Query
+   *
+   * @param tableName the tableName
+   * @param keys the keys to get
+   * @param whereKey WHERE whereKey = X
+   * @param whereValue WHERE X = whereValue
+   * @return future which is completed with all returned data or exceptionally if the query failed
+   */
+  CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue);
+
   /**
    * Get Data as Map from the Database with the Command "SELECT *"
    *
@@ -103,6 +154,25 @@ public interface TableStorage extends Storage {
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer);
 
+  /**
+   * Get Data Async as Map from the Database with the Command "SELECT *"
+   *
+   * @param tableName the tableName
+   * @return future which is completed with all returned data or exceptionally if the query failed
+   */
+  CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName);
+
+  /**
+   * Get Data Async as Map from the Database with the Command "SELECT"
+   *
+   * @param tableName the tableName
+   * @param whereKey WHERE whereKey = X
+   * @param whereValue WHERE X = whereValue
+   * @return future which is completed with all returned data or exceptionally if the query failed
+   */
+  CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue);
+
   /**
    * Update values from a target entry
    *
@@ -115,7 +185,9 @@ public interface TableStorage extends Storage {
   void update(String tableName, String[] keys, Object[] values, String whereKey, Object whereValue);
 
   /**
-   * Update values Async from a target entry
+   * Update values Async from a target entry. With write-behind enabled the update is queued and
+   * merged with the other queued updates of the entry, queued inserts are written before queued
+   * updates, so an update queued before the insert of its entry is applied after that insert
    *
    * @param tableName the tableName
    * @param keys the keys to set
@@ -126,6 +198,19 @@ public interface TableStorage extends Storage {
   void updateAsync(
       String tableName, String[] keys, Object[] values, String whereKey, Object whereValue);
 
+  /**
+   * Update values Async from a target entry
+   *
+   * @param tableName the tableName
+   * @param keys the keys to set
+   * @param values the new values
+   * @param whereKey WHERE whereKey = X
+   * @param whereValue WHERE X = whereValue
+   * @return future which is completed when the update is done or exceptionally if it failed
+   */
+  CompletableFuture<Void> updateFuture(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue);
+
   /**
    * Insert data in the table
    *
@@ -136,7 +221,8 @@ public interface TableStorage extends Storage {
   void insertInto(String tableName, String[] keys, Object[] values);
 
   /**
-   * Insert data in the table Async
+   * Insert data in the table Async. With write-behind enabled the insert is queued and written
+   * before the queued updates, see {@link #updateAsync(String, String[], Object[], String, Object)}
    *
    * @param tableName the tableName
    * @param keys the keys to set
@@ -144,6 +230,44 @@ public interface TableStorage extends Storage {
    */
   void insertIntoAsync(String tableName, String[] keys, Object[] values);
 
+  /**
+   * Insert data in the table Async
+   *
+   * @param tableName the tableName
+   * @param keys the keys to set
+   * @param values the values
+   * @return future which is completed when the insert is done or exceptionally if it failed
+   */
+  CompletableFuture<Void> insertIntoFuture(String tableName, String[] keys, Object[] values);
+
+  /**
+   * Insert many rows in the table with as few round trips as possible
+   *
+   * @param tableName the tableName
+   * @param keys the keys to set
+   * @param rows the values of each row, in the order of the keys
+   */
+  void insertBatch(String tableName, String[] keys, List<Object[]> rows);
+
+  /**
+   * Insert many rows in the table Async with as few round trips as possible
+   *
+   * @param tableName the tableName
+   * @param keys the keys to set
+   * @param rows the values of each row, in the order of the keys
+   */
+  void insertBatchAsync(String tableName, String[] keys, List<Object[]> rows);
+
+  /**
+   * Insert many rows in the table Async with as few round trips as possible
+   *
+   * @param tableName the tableName
+   * @param keys the keys to set
+   * @param rows the values of each row, in the order of the keys
+   * @return future which is completed when all rows are inserted or exceptionally if it failed
+   */
+  CompletableFuture<Void> insertBatchFuture(String tableName, String[] keys, List<Object[]> rows);
+
   /**
    * Delete Data from a table
    *
@@ -162,6 +286,16 @@ public interface TableStorage extends Storage {
    */
   void deleteFromAsync(String tableName, String whereKey, Object whereValue);
 
+  /**
+   * Delete Data Async from a table
+   *
+   * @param tableName the tableName
+   * @param whereKey WHERE whereKey = X
+   * @param whereValue WHERE X = whereValue
+   * @return future which is completed when the delete is done or exceptionally if it failed
+   */
+  CompletableFuture<Void> deleteFromFuture(String tableName, String whereKey, Object whereValue);
+
   /**
    * Create Table in the Storage if not exist
    *
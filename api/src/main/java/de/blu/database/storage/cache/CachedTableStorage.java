@@ -0,0 +1,492 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.storage.TableStorage;
+import de.blu.database.storage.pubsub.listener.PubSubListener;
+import de.blu.database.storage.redis.RedisConnection;
+import de.blu.database.util.SingleFlight;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the select methods of a TableStorage with Redis as cache shared by all
+ * servers. Every table has a version which is part of the cache keys, a write through this storage
+ * changes the version of its table and tells all other servers about it with pub/sub, so the old
+ * entries are not read anymore and expire with their ttl. Only one load per cache key runs at a
+ * time, all other callers wait for its result. The async writes are sent through the Future
+ * methods of the delegate, because the version may only change once the write is done, so a
+ * write-behind queue of the delegate is not used for writes through this storage
+ */
+@Getter
+public final class CachedTableStorage extends ForwardingTableStorage {
+
+  private final RedisConnection redisConnection;
+  private final String namespace;
+  private final String invalidationChannel;
+  private final int defaultTtlSeconds;
+
+  private final Map<String, Integer> tableTtls = new ConcurrentHashMap<>();
+  private final Map<String, Long> tableVersions = new ConcurrentHashMap<>();
+  private final SingleFlight<String, Map<Integer, Map<String, Object>>> singleFlight =
+      new SingleFlight<>();
+  private final PubSubListener invalidationListener = this::onInvalidation;
+
+  /**
+   * Create a cache for a TableStorage
+   *
+   * @param delegate the storage which holds the data
+   * @param redisConnection the Redis which caches the results
+   * @param namespace the prefix of all cache keys, every storage needs its own namespace
+   * @param defaultTtlSeconds the time in seconds a result is cached, 0 to not cache tables without
+   *     their own ttl
+   */
+  public CachedTableStorage(
+      TableStorage delegate,
+      RedisConnection redisConnection,
+      String namespace,
+      int defaultTtlSeconds) {
+    super(delegate);
+    this.redisConnection = redisConnection;
+    this.namespace = namespace;
+    this.invalidationChannel = namespace + ".invalidate";
+    this.defaultTtlSeconds = defaultTtlSeconds;
+
+    this.redisConnection.subscribe(this.invalidationListener, this.invalidationChannel);
+  }
+
+  /**
+   * Set how long the results of a table are cached
+   *
+   * @param tableName the name of the table
+   * @param ttlSeconds the time in seconds, 0 to not cache the table
+   */
+  public void setTableTtl(String tableName, int ttlSeconds) {
+    this.tableTtls.put(tableName, ttlSeconds);
+  }
+
+  /**
+   * Drop all cached results of a table on every server
+   *
+   * @param tableName the name of the table
+   */
+  public void invalidate(String tableName) {
+    // the time keeps the versions increasing even if two servers change the same table
+    long version = Math.max(System.currentTimeMillis(), this.getTableVersion(tableName) + 1);
+    this.tableVersions.merge(tableName, version, Math::max);
+    this.getRedisConnection().set(this.versionKey(tableName), String.valueOf(version));
+    this.getRedisConnection()
+        .publishFuture(this.getInvalidationChannel(), tableName + ":" + version);
+  }
+
+  @Override
+  public void disconnect() {
+    this.getRedisConnection().unsubscribe(this.invalidationListener, this.invalidationChannel);
+    super.disconnect();
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
+    return this.cached(
+        tableName,
+        QueryShape.of(tableName, "select", keys, null, null),
+        () -> super.select(tableName, keys));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.cached(
+        tableName,
+        QueryShape.of(tableName, "select", keys, whereKey, whereValue),
+        () -> super.select(tableName, keys, whereKey, whereValue));
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName, String[] keys, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectFuture(tableName, keys), consumer);
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName,
+      String[] keys,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectFuture(tableName, keys, whereKey, whereValue), consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys) {
+    return this.cachedFuture(
+        tableName,
+        QueryShape.of(tableName, "select", keys, null, null),
+        () -> super.selectFuture(tableName, keys));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.cachedFuture(
+        tableName,
+        QueryShape.of(tableName, "select", keys, whereKey, whereValue),
+        () -> super.selectFuture(tableName, keys, whereKey, whereValue));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(String tableName) {
+    return this.cached(
+        tableName,
+        QueryShape.of(tableName, "selectAll", null, null, null),
+        () -> super.selectAll(tableName));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(
+      String tableName, String whereKey, Object whereValue) {
+    return this.cached(
+        tableName,
+        QueryShape.of(tableName, "selectAll", null, whereKey, whereValue),
+        () -> super.selectAll(tableName, whereKey, whereValue));
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectAllFuture(tableName), consumer);
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectAllFuture(tableName, whereKey, whereValue), consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName) {
+    return this.cachedFuture(
+        tableName,
+        QueryShape.of(tableName, "selectAll", null, null, null),
+        () -> super.selectAllFuture(tableName));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.cachedFuture(
+        tableName,
+        QueryShape.of(tableName, "selectAll", null, whereKey, whereValue),
+        () -> super.selectAllFuture(tableName, whereKey, whereValue));
+  }
+
+  @Override
+  public void update(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    super.update(tableName, keys, values, whereKey, whereValue);
+    this.invalidate(tableName);
+  }
+
+  /** Written right away through updateFuture, a write-behind queue of the delegate is bypassed */
+  @Override
+  public void updateAsync(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    this.invalidateAfter(
+        tableName, super.updateFuture(tableName, keys, values, whereKey, whereValue));
+  }
+
+  @Override
+  public CompletableFuture<Void> updateFuture(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    return this.invalidateAfter(
+        tableName, super.updateFuture(tableName, keys, values, whereKey, whereValue));
+  }
+
+  @Override
+  public void insertInto(String tableName, String[] keys, Object[] values) {
+    super.insertInto(tableName, keys, values);
+    this.invalidate(tableName);
+  }
+
+  /**
+   * Written right away through insertIntoFuture, a write-behind queue of the delegate is bypassed
+   */
+  @Override
+  public void insertIntoAsync(String tableName, String[] keys, Object[] values) {
+    this.invalidateAfter(tableName, super.insertIntoFuture(tableName, keys, values));
+  }
+
+  @Override
+  public CompletableFuture<Void> insertIntoFuture(
+      String tableName, String[] keys, Object[] values) {
+    return this.invalidateAfter(tableName, super.insertIntoFuture(tableName, keys, values));
+  }
+
+  @Override
+  public void insertBatch(String tableName, String[] keys, List<Object[]> rows) {
+    super.insertBatch(tableName, keys, rows);
+    this.invalidate(tableName);
+  }
+
+  @Override
+  public void insertBatchAsync(String tableName, String[] keys, List<Object[]> rows) {
+    this.invalidateAfter(tableName, super.insertBatchFuture(tableName, keys, rows));
+  }
+
+  @Override
+  public CompletableFuture<Void> insertBatchFuture(
+      String tableName, String[] keys, List<Object[]> rows) {
+    return this.invalidateAfter(tableName, super.insertBatchFuture(tableName, keys, rows));
+  }
+
+  @Override
+  public void deleteFrom(String tableName, String whereKey, Object whereValue) {
+    super.deleteFrom(tableName, whereKey, whereValue);
+    this.invalidate(tableName);
+  }
+
+  @Override
+  public void deleteFromAsync(String tableName, String whereKey, Object whereValue) {
+    this.invalidateAfter(tableName, super.deleteFromFuture(tableName, whereKey, whereValue));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteFromFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.invalidateAfter(
+        tableName, super.deleteFromFuture(tableName, whereKey, whereValue));
+  }
+
+  private Map<Integer, Map<String, Object>> cached(
+      String tableName, String shape, Supplier<Map<Integer, Map<String, Object>>> loader) {
+    int ttlSeconds = this.getTableTtl(tableName);
+    if (ttlSeconds <= 0 || shape == null || !this.getRedisConnection().isConnected()) {
+      return loader.get();
+    }
+
+    String cacheKey = this.cacheKey(shape, this.getTableVersion(tableName));
+    Map<Integer, Map<String, Object>> result = this.decode(this.getRedisConnection().get(cacheKey));
+    if (result != null) {
+      return result;
+    }
+
+    return this.getSingleFlight()
+        .execute(
+            cacheKey,
+            () -> {
+              Map<Integer, Map<String, Object>> loaded = loader.get();
+              this.store(cacheKey, loaded, ttlSeconds);
+              return loaded;
+            });
+  }
+
+  private CompletableFuture<Map<Integer, Map<String, Object>>> cachedFuture(
+      String tableName,
+      String shape,
+      Supplier<CompletableFuture<Map<Integer, Map<String, Object>>>> loader) {
+    int ttlSeconds = this.getTableTtl(tableName);
+    if (ttlSeconds <= 0 || shape == null || !this.getRedisConnection().isConnected()) {
+      return loader.get();
+    }
+
+    return this.getTableVersionFuture(tableName)
+        .exceptionally(throwable -> null)
+        .thenCompose(
+            version -> {
+              if (version == null) {
+                // without the version no cache key is known to be current
+                return loader.get();
+              }
+
+              String cacheKey = this.cacheKey(shape, version);
+              return this.getRedisConnection()
+                  .getFuture(cacheKey)
+                  .exceptionally(throwable -> null)
+                  .thenCompose(json -> this.loadOnMiss(cacheKey, json, ttlSeconds, loader));
+            });
+  }
+
+  private CompletableFuture<Map<Integer, Map<String, Object>>> loadOnMiss(
+      String cacheKey,
+      String json,
+      int ttlSeconds,
+      Supplier<CompletableFuture<Map<Integer, Map<String, Object>>>> loader) {
+    Map<Integer, Map<String, Object>> result = this.decode(json);
+    if (result != null) {
+      return CompletableFuture.completedFuture(result);
+    }
+
+    return this.getSingleFlight()
+        .executeFuture(
+            cacheKey,
+            () ->
+                loader
+                    .get()
+                    .thenApply(
+                        loaded -> {
+                          this.store(cacheKey, loaded, ttlSeconds);
+                          return loaded;
+                        }));
+  }
+
+  private Map<Integer, Map<String, Object>> decode(String json) {
+    if (json == null || json.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return TableResultCodec.decode(json);
+    } catch (Exception e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  private void store(String cacheKey, Map<Integer, Map<String, Object>> result, int ttlSeconds) {
+    if (result == null) {
+      return;
+    }
+
+    String json = TableResultCodec.encode(result);
+    if (json == null) {
+      // the result holds a type the codec does not know, it is read from the database every time
+      return;
+    }
+
+    this.getRedisConnection()
+        .setFuture(cacheKey, json, ttlSeconds)
+        .exceptionally(
+            throwable -> {
+              throwable.printStackTrace();
+              return null;
+            });
+  }
+
+  private void accept(
+      CompletableFuture<Map<Integer, Map<String, Object>>> future,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    future.whenComplete(
+        (result, throwable) -> {
+          if (throwable != null) {
+            throwable.printStackTrace();
+            return;
+          }
+
+          consumer.accept(result);
+        });
+  }
+
+  /**
+   * Invalidate the table once the write is done, the Redis calls are async so the thread which
+   * completes the write is not blocked by them
+   *
+   * @return future which is completed like the write after the invalidation
+   */
+  private CompletableFuture<Void> invalidateAfter(String tableName, CompletableFuture<Void> write) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    write.whenComplete(
+        (result, throwable) ->
+            this.invalidateFuture(tableName)
+                .whenComplete(
+                    (ignored, invalidateThrowable) -> {
+                      if (invalidateThrowable != null) {
+                        invalidateThrowable.printStackTrace();
+                      }
+
+                      if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                      } else {
+                        future.complete(result);
+                      }
+                    }));
+    return future;
+  }
+
+  private CompletableFuture<Void> invalidateFuture(String tableName) {
+    return this.getTableVersionFuture(tableName)
+        .thenCompose(
+            currentVersion -> {
+              long version = Math.max(System.currentTimeMillis(), currentVersion + 1);
+              this.tableVersions.merge(tableName, version, Math::max);
+              this.getRedisConnection()
+                  .publishFuture(this.getInvalidationChannel(), tableName + ":" + version);
+              return this.getRedisConnection()
+                  .setFuture(this.versionKey(tableName), String.valueOf(version));
+            });
+  }
+
+  private void onInvalidation(String channel, String message) {
+    int separator = message.lastIndexOf(':');
+    if (separator == -1) {
+      return;
+    }
+
+    try {
+      this.tableVersions.merge(
+          message.substring(0, separator),
+          Long.parseLong(message.substring(separator + 1)),
+          Math::max);
+    } catch (NumberFormatException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private int getTableTtl(String tableName) {
+    return this.tableTtls.getOrDefault(tableName, this.getDefaultTtlSeconds());
+  }
+
+  private long getTableVersion(String tableName) {
+    return this.tableVersions.computeIfAbsent(
+        tableName,
+        table ->
+            CachedTableStorage.parseVersion(
+                this.getRedisConnection().get(this.versionKey(table))));
+  }
+
+  private CompletableFuture<Long> getTableVersionFuture(String tableName) {
+    Long version = this.tableVersions.get(tableName);
+    if (version != null) {
+      return CompletableFuture.completedFuture(version);
+    }
+
+    return this.getRedisConnection()
+        .getFuture(this.versionKey(tableName))
+        .thenApply(
+            value ->
+                this.tableVersions.merge(
+                    tableName, CachedTableStorage.parseVersion(value), Math::max));
+  }
+
+  private static long parseVersion(String version) {
+    try {
+      return version == null || version.isEmpty() ? 0L : Long.parseLong(version);
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+
+  private String versionKey(String tableName) {
+    return this.getNamespace() + ".version." + tableName;
+  }
+
+  /**
+   * Build the cache key of a select, the version of the table is part of it so a write makes all
+   * older results unreachable
+   *
+   * @param shape the shape of the select
+   * @param version the current version of its table
+   * @return the key
+   */
+  private String cacheKey(String shape, long version) {
+    return this.getNamespace() + "." + version + "." + shape;
+  }
+}
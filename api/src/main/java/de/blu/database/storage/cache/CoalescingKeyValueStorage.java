@@ -0,0 +1,69 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.storage.KeyValueStorage;
+import de.blu.database.util.SingleFlight;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs identical reads which are requested at the same time only once and hands the result to
+ * every caller, nothing is kept after the read finished. Every caller gets its own copy of a Map
+ * result
+ */
+public final class CoalescingKeyValueStorage extends ForwardingKeyValueStorage {
+
+  private final SingleFlight<String, String> values = new SingleFlight<>();
+  private final SingleFlight<String, Map<String, String>> manyValues = new SingleFlight<>();
+
+  public CoalescingKeyValueStorage(KeyValueStorage delegate) {
+    super(delegate);
+  }
+
+  /**
+   * Get the amount of reads which were sent to the storage
+   *
+   * @return the amount of executed reads
+   */
+  public long getExecutedCount() {
+    return this.values.getExecutedCount() + this.manyValues.getExecutedCount();
+  }
+
+  /**
+   * Get the amount of reads which got the result of an identical running read
+   *
+   * @return the amount of collapsed reads
+   */
+  public long getCollapsedCount() {
+    return this.values.getCollapsedCount() + this.manyValues.getCollapsedCount();
+  }
+
+  @Override
+  public String get(String key) {
+    return this.values.execute(key, () -> super.get(key));
+  }
+
+  @Override
+  public CompletableFuture<String> getFuture(String key) {
+    return this.values.executeFuture(key, () -> super.getFuture(key));
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    return CoalescingKeyValueStorage.copy(
+        this.manyValues.execute(String.join("\n", keys), () -> super.getMany(keys)));
+  }
+
+  @Override
+  public CompletableFuture<Map<String, String>> getManyFuture(Collection<String> keys) {
+    return this.manyValues
+        .executeFuture(String.join("\n", keys), () -> super.getManyFuture(keys))
+        .thenApply(CoalescingKeyValueStorage::copy);
+  }
+
+  private static Map<String, String> copy(Map<String, String> values) {
+    return values == null ? null : new LinkedHashMap<>(values);
+  }
+}
@@ -0,0 +1,196 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.data.ResultTable;
+import de.blu.database.storage.TableStorage;
+import de.blu.database.util.SingleFlight;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs identical reads which are requested at the same time only once and hands the result to
+ * every caller. Nothing is kept after the read finished, so this does not change which data is
+ * read. Every caller gets its own copy of the result, so one caller changing its result does not
+ * change the result of another
+ */
+@Getter
+public final class CoalescingTableStorage extends ForwardingTableStorage {
+
+  private final SingleFlight<String, Map<Integer, Map<String, Object>>> selects =
+      new SingleFlight<>();
+  private final SingleFlight<String, ResultTable> queries = new SingleFlight<>();
+
+  public CoalescingTableStorage(TableStorage delegate) {
+    super(delegate);
+  }
+
+  /**
+   * Get the amount of reads which were sent to the storage
+   *
+   * @return the amount of executed reads
+   */
+  public long getExecutedCount() {
+    return this.selects.getExecutedCount() + this.queries.getExecutedCount();
+  }
+
+  /**
+   * Get the amount of reads which got the result of an identical running read
+   *
+   * @return the amount of collapsed reads
+   */
+  public long getCollapsedCount() {
+    return this.selects.getCollapsedCount() + this.queries.getCollapsedCount();
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> getData(String query) {
+    return this.getResultTable(query).asMap();
+  }
+
+  @Override
+  public ResultTable getResultTable(String query) {
+    ResultTable resultTable = this.queries.execute(query, () -> super.getResultTable(query));
+    return resultTable == null ? null : resultTable.copy();
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
+    return this.coalesce(
+        QueryShape.of(tableName, "select", keys, null, null), () -> super.select(tableName, keys));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.coalesce(
+        QueryShape.of(tableName, "select", keys, whereKey, whereValue),
+        () -> super.select(tableName, keys, whereKey, whereValue));
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName, String[] keys, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectFuture(tableName, keys), consumer);
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName,
+      String[] keys,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectFuture(tableName, keys, whereKey, whereValue), consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys) {
+    return this.coalesceFuture(
+        QueryShape.of(tableName, "select", keys, null, null),
+        () -> super.selectFuture(tableName, keys));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.coalesceFuture(
+        QueryShape.of(tableName, "select", keys, whereKey, whereValue),
+        () -> super.selectFuture(tableName, keys, whereKey, whereValue));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(String tableName) {
+    return this.coalesce(
+        QueryShape.of(tableName, "selectAll", null, null, null),
+        () -> super.selectAll(tableName));
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(
+      String tableName, String whereKey, Object whereValue) {
+    return this.coalesce(
+        QueryShape.of(tableName, "selectAll", null, whereKey, whereValue),
+        () -> super.selectAll(tableName, whereKey, whereValue));
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectAllFuture(tableName), consumer);
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.accept(this.selectAllFuture(tableName, whereKey, whereValue), consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName) {
+    return this.coalesceFuture(
+        QueryShape.of(tableName, "selectAll", null, null, null),
+        () -> super.selectAllFuture(tableName));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.coalesceFuture(
+        QueryShape.of(tableName, "selectAll", null, whereKey, whereValue),
+        () -> super.selectAllFuture(tableName, whereKey, whereValue));
+  }
+
+  private Map<Integer, Map<String, Object>> coalesce(
+      String shape, Supplier<Map<Integer, Map<String, Object>>> loader) {
+    if (shape == null) {
+      return loader.get();
+    }
+
+    return CoalescingTableStorage.copy(this.selects.execute(shape, loader));
+  }
+
+  private CompletableFuture<Map<Integer, Map<String, Object>>> coalesceFuture(
+      String shape, Supplier<CompletableFuture<Map<Integer, Map<String, Object>>>> loader) {
+    if (shape == null) {
+      return loader.get();
+    }
+
+    return this.selects.executeFuture(shape, loader).thenApply(CoalescingTableStorage::copy);
+  }
+
+  private static Map<Integer, Map<String, Object>> copy(Map<Integer, Map<String, Object>> result) {
+    if (result == null) {
+      return null;
+    }
+
+    Map<Integer, Map<String, Object>> copy = new LinkedHashMap<>(result.size() * 2);
+    for (Map.Entry<Integer, Map<String, Object>> row : result.entrySet()) {
+      copy.put(row.getKey(), row.getValue() == null ? null : new HashMap<>(row.getValue()));
+    }
+
+    return copy;
+  }
+
+  private void accept(
+      CompletableFuture<Map<Integer, Map<String, Object>>> future,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    future.whenComplete(
+        (result, throwable) -> {
+          if (throwable != null) {
+            throwable.printStackTrace();
+            return;
+          }
+
+          consumer.accept(result);
+        });
+  }
+}
@@ -0,0 +1,145 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.storage.KeyValueStorage;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/** Passes every call to another KeyValueStorage, decorators only override what they change */
+@Getter
+public abstract class ForwardingKeyValueStorage implements KeyValueStorage {
+
+  private final KeyValueStorage delegate;
+
+  protected ForwardingKeyValueStorage(KeyValueStorage delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void connect() {
+    this.getDelegate().connect();
+  }
+
+  @Override
+  public void disconnect() {
+    this.getDelegate().disconnect();
+  }
+
+  @Override
+  public boolean isConnected() {
+    return this.getDelegate().isConnected();
+  }
+
+  @Override
+  public void set(String key, String value) {
+    this.getDelegate().set(key, value);
+  }
+
+  @Override
+  public void set(String key, String value, int expireSeconds) {
+    this.getDelegate().set(key, value, expireSeconds);
+  }
+
+  @Override
+  public void setMany(Map<String, String> values) {
+    this.getDelegate().setMany(values);
+  }
+
+  @Override
+  public void setMany(Map<String, String> values, int expireSeconds) {
+    this.getDelegate().setMany(values, expireSeconds);
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value) {
+    return this.getDelegate().setFuture(key, value);
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value, int expireSeconds) {
+    return this.getDelegate().setFuture(key, value, expireSeconds);
+  }
+
+  @Override
+  public void remove(String key) {
+    this.getDelegate().remove(key);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeFuture(String key) {
+    return this.getDelegate().removeFuture(key);
+  }
+
+  @Override
+  public Collection<String> getKeys(String key) {
+    return this.getDelegate().getKeys(key);
+  }
+
+  @Override
+  public Collection<String> getKeys(String key, boolean recursive) {
+    return this.getDelegate().getKeys(key, recursive);
+  }
+
+  @Override
+  public Stream<String> scanKeys(String pattern) {
+    return this.getDelegate().scanKeys(pattern);
+  }
+
+  @Override
+  public String get(String key) {
+    return this.getDelegate().get(key);
+  }
+
+  @Override
+  public CompletableFuture<String> getFuture(String key) {
+    return this.getDelegate().getFuture(key);
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    return this.getDelegate().getMany(keys);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, String>> getManyFuture(Collection<String> keys) {
+    return this.getDelegate().getManyFuture(keys);
+  }
+
+  @Override
+  public Map<String, String> getAll() {
+    return this.getDelegate().getAll();
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return this.getDelegate().contains(key);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> containsFuture(String key) {
+    return this.getDelegate().containsFuture(key);
+  }
+
+  @Override
+  public boolean containsPrefix(String prefix) {
+    return this.getDelegate().containsPrefix(prefix);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> containsPrefixFuture(String prefix) {
+    return this.getDelegate().containsPrefixFuture(prefix);
+  }
+
+  @Override
+  public int getRemainingTimeFromKey(String key) {
+    return this.getDelegate().getRemainingTimeFromKey(key);
+  }
+
+  @Override
+  public CompletableFuture<Integer> getRemainingTimeFromKeyFuture(String key) {
+    return this.getDelegate().getRemainingTimeFromKeyFuture(key);
+  }
+}
@@ -0,0 +1,205 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.data.ResultTable;
+import de.blu.database.data.TableColumn;
+import de.blu.database.storage.TableStorage;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/** Passes every call to another TableStorage, decorators only override what they change */
+@Getter
+public abstract class ForwardingTableStorage implements TableStorage {
+
+  private final TableStorage delegate;
+
+  protected ForwardingTableStorage(TableStorage delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void connect() {
+    this.getDelegate().connect();
+  }
+
+  @Override
+  public void disconnect() {
+    this.getDelegate().disconnect();
+  }
+
+  @Override
+  public boolean isConnected() {
+    return this.getDelegate().isConnected();
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> getData(String query) {
+    return this.getDelegate().getData(query);
+  }
+
+  @Override
+  public ResultTable getResultTable(String query) {
+    return this.getDelegate().getResultTable(query);
+  }
+
+  @Override
+  public Stream<Map<String, Object>> stream(String query) {
+    return this.getDelegate().stream(query);
+  }
+
+  @Override
+  public Stream<Map<String, Object>> streamAll(String tableName) {
+    return this.getDelegate().streamAll(tableName);
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
+    return this.getDelegate().select(tableName, keys);
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName, String[] keys, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.getDelegate().selectAsync(tableName, keys, consumer);
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> select(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.getDelegate().select(tableName, keys, whereKey, whereValue);
+  }
+
+  @Override
+  public void selectAsync(
+      String tableName,
+      String[] keys,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.getDelegate().selectAsync(tableName, keys, whereKey, whereValue, consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys) {
+    return this.getDelegate().selectFuture(tableName, keys);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.getDelegate().selectFuture(tableName, keys, whereKey, whereValue);
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(String tableName) {
+    return this.getDelegate().selectAll(tableName);
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName, Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.getDelegate().selectAllAsync(tableName, consumer);
+  }
+
+  @Override
+  public Map<Integer, Map<String, Object>> selectAll(
+      String tableName, String whereKey, Object whereValue) {
+    return this.getDelegate().selectAll(tableName, whereKey, whereValue);
+  }
+
+  @Override
+  public void selectAllAsync(
+      String tableName,
+      String whereKey,
+      Object whereValue,
+      Consumer<Map<Integer, Map<String, Object>>> consumer) {
+    this.getDelegate().selectAllAsync(tableName, whereKey, whereValue, consumer);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName) {
+    return this.getDelegate().selectAllFuture(tableName);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.getDelegate().selectAllFuture(tableName, whereKey, whereValue);
+  }
+
+  @Override
+  public void update(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    this.getDelegate().update(tableName, keys, values, whereKey, whereValue);
+  }
+
+  @Override
+  public void updateAsync(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    this.getDelegate().updateAsync(tableName, keys, values, whereKey, whereValue);
+  }
+
+  @Override
+  public CompletableFuture<Void> updateFuture(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    return this.getDelegate().updateFuture(tableName, keys, values, whereKey, whereValue);
+  }
+
+  @Override
+  public void insertInto(String tableName, String[] keys, Object[] values) {
+    this.getDelegate().insertInto(tableName, keys, values);
+  }
+
+  @Override
+  public void insertIntoAsync(String tableName, String[] keys, Object[] values) {
+    this.getDelegate().insertIntoAsync(tableName, keys, values);
+  }
+
+  @Override
+  public CompletableFuture<Void> insertIntoFuture(
+      String tableName, String[] keys, Object[] values) {
+    return this.getDelegate().insertIntoFuture(tableName, keys, values);
+  }
+
+  @Override
+  public void insertBatch(String tableName, String[] keys, List<Object[]> rows) {
+    this.getDelegate().insertBatch(tableName, keys, rows);
+  }
+
+  @Override
+  public void insertBatchAsync(String tableName, String[] keys, List<Object[]> rows) {
+    this.getDelegate().insertBatchAsync(tableName, keys, rows);
+  }
+
+  @Override
+  public CompletableFuture<Void> insertBatchFuture(
+      String tableName, String[] keys, List<Object[]> rows) {
+    return this.getDelegate().insertBatchFuture(tableName, keys, rows);
+  }
+
+  @Override
+  public void deleteFrom(String tableName, String whereKey, Object whereValue) {
+    this.getDelegate().deleteFrom(tableName, whereKey, whereValue);
+  }
+
+  @Override
+  public void deleteFromAsync(String tableName, String whereKey, Object whereValue) {
+    this.getDelegate().deleteFromAsync(tableName, whereKey, whereValue);
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteFromFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.getDelegate().deleteFromFuture(tableName, whereKey, whereValue);
+  }
+
+  @Override
+  public void createTableIfNotExist(String tableName, List<TableColumn> columns) {
+    this.getDelegate().createTableIfNotExist(tableName, columns);
+  }
+}
@@ -0,0 +1,437 @@
+package de.blu.database.storage.cache;
+
+import de.blu.database.storage.KeyValueStorage;
+import de.blu.database.storage.pubsub.PubSub;
+import de.blu.database.storage.pubsub.listener.PubSubListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps recently read values in memory in front of another KeyValueStorage. Entries are evicted
+ * least recently used first, live at most as long as the key in the storage and are invalidated
+ * through Redis keyspace notifications when the key is changed by anyone. The Redis server needs
+ * keyspace notifications enabled for that ("notify-keyspace-events" containing at least "K$gx"),
+ * without them an entry is only refreshed after maxTtlMillis. Only the notifications of the
+ * database and the key prefixes of the cache are subscribed, keys without one of the prefixes are
+ * read from the storage every time
+ */
+public final class NearCacheKeyValueStorage extends ForwardingKeyValueStorage {
+
+  private final int maxSize;
+  private final long maxTtlNanos;
+  private final String[] keyPrefixes;
+  private final String[] invalidationPatterns;
+  private final PubSub invalidationSource;
+  private final PubSubListener invalidationListener =
+      (channel, message) -> this.invalidate(channel.substring(channel.indexOf(':') + 1));
+
+  private final Map<String, CacheEntry> entries;
+  private final Map<String, Object> loadingTokens = new ConcurrentHashMap<>();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * Create a near cache for all keys of database 0
+   *
+   * @param delegate the storage which holds the values
+   * @param invalidationSource the pub/sub of the Redis server of the storage for keyspace
+   *     notifications or null to only rely on the ttl
+   * @param maxSize the max amount of cached keys
+   * @param maxTtlMillis the max time in millis a value is cached
+   */
+  public NearCacheKeyValueStorage(
+      KeyValueStorage delegate, PubSub invalidationSource, int maxSize, long maxTtlMillis) {
+    this(delegate, invalidationSource, 0, Collections.emptyList(), maxSize, maxTtlMillis);
+  }
+
+  /**
+   * Create a near cache
+   *
+   * @param delegate the storage which holds the values
+   * @param invalidationSource the pub/sub of the Redis server of the storage for keyspace
+   *     notifications or null to only rely on the ttl
+   * @param database the Redis database of the storage
+   * @param keyPrefixes the prefixes of the keys which are cached, all keys if it is null or empty
+   * @param maxSize the max amount of cached keys
+   * @param maxTtlMillis the max time in millis a value is cached
+   */
+  public NearCacheKeyValueStorage(
+      KeyValueStorage delegate,
+      PubSub invalidationSource,
+      int database,
+      Collection<String> keyPrefixes,
+      int maxSize,
+      long maxTtlMillis) {
+    super(delegate);
+    this.maxSize = Math.max(1, maxSize);
+    this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxTtlMillis));
+    this.keyPrefixes = keyPrefixes == null ? new String[0] : keyPrefixes.toArray(new String[0]);
+    this.invalidationPatterns =
+        NearCacheKeyValueStorage.invalidationPatterns(database, this.keyPrefixes);
+    this.invalidationSource = invalidationSource;
+    this.entries =
+        new LinkedHashMap<String, CacheEntry>(16, 0.75F, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            if (this.size() <= NearCacheKeyValueStorage.this.maxSize) {
+              return false;
+            }
+
+            NearCacheKeyValueStorage.this.evictionCount.increment();
+            return true;
+          }
+        };
+
+    if (this.invalidationSource != null) {
+      this.invalidationSource.psubscribe(this.invalidationListener, this.invalidationPatterns);
+    }
+  }
+
+  @Override
+  public void disconnect() {
+    this.close();
+    super.disconnect();
+  }
+
+  /** Stop listening for invalidations and drop all cached values */
+  public void close() {
+    if (this.invalidationSource != null) {
+      this.invalidationSource.punsubscribe(this.invalidationListener, this.invalidationPatterns);
+    }
+
+    this.invalidateAll();
+  }
+
+  @Override
+  public void set(String key, String value) {
+    super.set(key, value);
+    this.invalidate(key);
+  }
+
+  @Override
+  public void set(String key, String value, int expireSeconds) {
+    super.set(key, value, expireSeconds);
+    this.invalidate(key);
+  }
+
+  @Override
+  public void setMany(Map<String, String> values) {
+    super.setMany(values);
+    values.keySet().forEach(this::invalidate);
+  }
+
+  @Override
+  public void setMany(Map<String, String> values, int expireSeconds) {
+    super.setMany(values, expireSeconds);
+    values.keySet().forEach(this::invalidate);
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value) {
+    return super.setFuture(key, value).whenComplete((result, throwable) -> this.invalidate(key));
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value, int expireSeconds) {
+    return super.setFuture(key, value, expireSeconds)
+        .whenComplete((result, throwable) -> this.invalidate(key));
+  }
+
+  @Override
+  public void remove(String key) {
+    super.remove(key);
+    this.invalidate(key);
+  }
+
+  @Override
+  public CompletableFuture<Void> removeFuture(String key) {
+    return super.removeFuture(key).whenComplete((result, throwable) -> this.invalidate(key));
+  }
+
+  @Override
+  public String get(String key) {
+    if (!this.isCached(key)) {
+      return super.get(key);
+    }
+
+    CacheEntry entry = this.lookup(key);
+    if (entry != null) {
+      return entry.value;
+    }
+
+    try {
+      return this.load(key).join();
+    } catch (Exception e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  @Override
+  public CompletableFuture<String> getFuture(String key) {
+    if (!this.isCached(key)) {
+      return super.getFuture(key);
+    }
+
+    CacheEntry entry = this.lookup(key);
+    if (entry != null) {
+      return CompletableFuture.completedFuture(entry.value);
+    }
+
+    return this.load(key);
+  }
+
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    Map<String, String> data = new LinkedHashMap<>();
+    List<String> missingKeys = this.lookupMany(keys, data);
+    if (missingKeys.isEmpty()) {
+      return data;
+    }
+
+    Map<String, Object> tokens = this.startLoading(missingKeys);
+    Map<String, String> loaded = super.getMany(missingKeys);
+    this.finishLoading(tokens, loaded);
+    return this.merge(keys, data, loaded);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, String>> getManyFuture(Collection<String> keys) {
+    Map<String, String> data = new LinkedHashMap<>();
+    List<String> missingKeys = this.lookupMany(keys, data);
+    if (missingKeys.isEmpty()) {
+      return CompletableFuture.completedFuture(data);
+    }
+
+    Map<String, Object> tokens = this.startLoading(missingKeys);
+    return super.getManyFuture(missingKeys)
+        .thenApply(
+            loaded -> {
+              this.finishLoading(tokens, loaded);
+              return this.merge(keys, data, loaded);
+            });
+  }
+
+  /**
+   * Remove a key from the cache
+   *
+   * @param key the key
+   */
+  public void invalidate(String key) {
+    // a value which is being loaded right now could be older than this change
+    this.loadingTokens.remove(key);
+
+    synchronized (this.entries) {
+      this.entries.remove(key);
+    }
+  }
+
+  /** Remove all keys from the cache */
+  public void invalidateAll() {
+    this.loadingTokens.clear();
+
+    synchronized (this.entries) {
+      this.entries.clear();
+    }
+  }
+
+  public int getSize() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return this.hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return this.missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return this.evictionCount.sum();
+  }
+
+  /**
+   * Get the share of reads which were answered from memory
+   *
+   * @return the hit rate between 0 and 1
+   */
+  public double getHitRate() {
+    long hits = this.getHitCount();
+    long requests = hits + this.getMissCount();
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  private boolean isCached(String key) {
+    if (this.keyPrefixes.length == 0) {
+      return true;
+    }
+
+    for (String keyPrefix : this.keyPrefixes) {
+      if (key.startsWith(keyPrefix)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private CacheEntry lookup(String key) {
+    CacheEntry entry;
+    synchronized (this.entries) {
+      entry = this.entries.get(key);
+      if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+        this.entries.remove(key);
+        entry = null;
+      }
+    }
+
+    if (entry == null) {
+      this.missCount.increment();
+    } else {
+      this.hitCount.increment();
+    }
+
+    return entry;
+  }
+
+  private List<String> lookupMany(Collection<String> keys, Map<String, String> data) {
+    List<String> missingKeys = new ArrayList<>();
+    for (String key : keys) {
+      CacheEntry entry = this.isCached(key) ? this.lookup(key) : null;
+      if (entry == null) {
+        missingKeys.add(key);
+      } else if (entry.value != null) {
+        data.put(key, entry.value);
+      }
+    }
+
+    return missingKeys;
+  }
+
+  /**
+   * Read the value and its ttl in parallel and cache it unless the key was invalidated meanwhile.
+   * Missing keys are not cached, same as in getMany, so a key which is created later is seen
+   * at once
+   *
+   * @param key the key
+   * @return future with the value
+   */
+  private CompletableFuture<String> load(String key) {
+    Object token = new Object();
+    this.loadingTokens.put(key, token);
+
+    return super.getFuture(key)
+        .thenCombine(
+            super.getRemainingTimeFromKeyFuture(key),
+            (value, remainingSeconds) -> {
+              long ttlNanos =
+                  remainingSeconds > 0
+                      ? Math.min(this.maxTtlNanos, TimeUnit.SECONDS.toNanos(remainingSeconds))
+                      : this.maxTtlNanos;
+              if (this.loadingTokens.remove(key, token) && value != null) {
+                this.put(key, value, ttlNanos);
+              }
+
+              return value;
+            });
+  }
+
+  private Map<String, Object> startLoading(Collection<String> keys) {
+    Map<String, Object> tokens = new LinkedHashMap<>();
+    for (String key : keys) {
+      Object token = new Object();
+      this.loadingTokens.put(key, token);
+      tokens.put(key, token);
+    }
+
+    return tokens;
+  }
+
+  /**
+   * Cache the values of a bulk read, the ttl of every key is not known here so they are kept for
+   * maxTtlMillis or until their keyspace notification arrives
+   */
+  private void finishLoading(Map<String, Object> tokens, Map<String, String> loaded) {
+    for (Map.Entry<String, Object> token : tokens.entrySet()) {
+      String value = loaded.get(token.getKey());
+      if (value != null
+          && this.isCached(token.getKey())
+          && this.loadingTokens.remove(token.getKey(), token.getValue())) {
+        this.put(token.getKey(), value, this.maxTtlNanos);
+      } else {
+        this.loadingTokens.remove(token.getKey(), token.getValue());
+      }
+    }
+  }
+
+  private Map<String, String> merge(
+      Collection<String> keys, Map<String, String> cached, Map<String, String> loaded) {
+    Map<String, String> data = new LinkedHashMap<>();
+    for (String key : keys) {
+      String value = cached.containsKey(key) ? cached.get(key) : loaded.get(key);
+      if (value != null) {
+        data.put(key, value);
+      }
+    }
+
+    return data;
+  }
+
+  private void put(String key, String value, long ttlNanos) {
+    synchronized (this.entries) {
+      this.entries.put(key, new CacheEntry(value, System.nanoTime() + ttlNanos));
+    }
+  }
+
+  private static String[] invalidationPatterns(int database, String[] keyPrefixes) {
+    String channelPrefix = "__keyspace@" + database + "__:";
+    if (keyPrefixes.length == 0) {
+      return new String[] {channelPrefix + "*"};
+    }
+
+    String[] patterns = new String[keyPrefixes.length];
+    for (int i = 0; i < keyPrefixes.length; i++) {
+      patterns[i] = channelPrefix + NearCacheKeyValueStorage.escapePattern(keyPrefixes[i]) + "*";
+    }
+
+    return patterns;
+  }
+
+  // the prefix is matched literally, glob characters in it are escaped
+  private static String escapePattern(String value) {
+    StringBuilder pattern = new StringBuilder(value.length());
+    for (char character : value.toCharArray()) {
+      if ("*?[]\\".indexOf(character) != -1) {
+        pattern.append('\\');
+      }
+
+      pattern.append(character);
+    }
+
+    return pattern.toString();
+  }
+
+  private static final class CacheEntry {
+    private final String value;
+    private final long expiresAt;
+
+    private CacheEntry(String value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
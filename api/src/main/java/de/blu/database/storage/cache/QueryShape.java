@@ -0,0 +1,36 @@
+package de.blu.database.storage.cache;
+
+/** Builds a String which is equal for two selects exactly if they read the same rows */
+public final class QueryShape {
+
+  private QueryShape() {}
+
+  /**
+   * Describe a select
+   *
+   * @param tableName the name of the table
+   * @param operation the name of the select method
+   * @param keys the selected columns or null for all columns
+   * @param whereKey the column of the condition or null
+   * @param whereValue the value of the condition
+   * @return the shape or null if the where value can not be described
+   */
+  public static String of(
+      String tableName, String operation, String[] keys, String whereKey, Object whereValue) {
+    if (whereValue != null && whereValue.getClass().isArray()) {
+      return null;
+    }
+
+    StringBuilder shape = new StringBuilder(tableName).append('.').append(operation);
+
+    if (keys != null) {
+      shape.append('.').append(String.join(",", keys));
+    }
+
+    if (whereKey != null) {
+      shape.append('.').append(whereKey).append('=').append(whereValue);
+    }
+
+    return shape.toString();
+  }
+}
@@ -0,0 +1,182 @@
+package de.blu.database.storage.cache;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes select results as JSON which keeps the Java type of every value, so a result read from
+ * the cache holds the same types as one read from the database. Every value is stored as an array
+ * of a type tag and the value as String
+ */
+public final class TableResultCodec {
+
+  private TableResultCodec() {}
+
+  /**
+   * Write a select result as JSON
+   *
+   * @param result the result
+   * @return the JSON or null if the result holds a type which can not be written
+   */
+  public static String encode(Map<Integer, Map<String, Object>> result) {
+    JsonObject rows = new JsonObject();
+    for (Map.Entry<Integer, Map<String, Object>> row : result.entrySet()) {
+      JsonObject columns = new JsonObject();
+      for (Map.Entry<String, Object> column : row.getValue().entrySet()) {
+        JsonElement value = encodeValue(column.getValue());
+        if (value == null) {
+          return null;
+        }
+
+        columns.add(column.getKey(), value);
+      }
+
+      rows.add(String.valueOf(row.getKey()), columns);
+    }
+
+    return rows.toString();
+  }
+
+  /**
+   * Read a select result which was written by {@link #encode(Map)}
+   *
+   * @param json the JSON
+   * @return the result
+   */
+  public static Map<Integer, Map<String, Object>> decode(String json) {
+    JsonObject rows = JsonParser.parseString(json).getAsJsonObject();
+    Map<Integer, Map<String, Object>> result = new LinkedHashMap<>();
+
+    for (Map.Entry<String, JsonElement> row : rows.entrySet()) {
+      Map<String, Object> columns = new HashMap<>();
+      for (Map.Entry<String, JsonElement> column : row.getValue().getAsJsonObject().entrySet()) {
+        columns.put(column.getKey(), decodeValue(column.getValue()));
+      }
+
+      result.put(Integer.parseInt(row.getKey()), columns);
+    }
+
+    return result;
+  }
+
+  private static JsonElement encodeValue(Object value) {
+    if (value == null) {
+      return JsonNull.INSTANCE;
+    }
+
+    String type;
+    String text;
+    if (value instanceof String) {
+      type = "S";
+      text = (String) value;
+    } else if (value instanceof Integer) {
+      type = "I";
+      text = value.toString();
+    } else if (value instanceof Long) {
+      type = "L";
+      text = value.toString();
+    } else if (value instanceof Short) {
+      type = "H";
+      text = value.toString();
+    } else if (value instanceof Byte) {
+      type = "Y";
+      text = value.toString();
+    } else if (value instanceof Double) {
+      type = "D";
+      text = value.toString();
+    } else if (value instanceof Float) {
+      type = "F";
+      text = value.toString();
+    } else if (value instanceof Boolean) {
+      type = "B";
+      text = value.toString();
+    } else if (value instanceof BigDecimal) {
+      type = "N";
+      text = value.toString();
+    } else if (value instanceof UUID) {
+      type = "U";
+      text = value.toString();
+    } else if (value instanceof Timestamp) {
+      type = "T";
+      text = ((Timestamp) value).getTime() + ":" + ((Timestamp) value).getNanos();
+    } else if (value instanceof java.sql.Date) {
+      type = "Q";
+      text = String.valueOf(((java.sql.Date) value).getTime());
+    } else if (value instanceof Time) {
+      type = "M";
+      text = String.valueOf(((Time) value).getTime());
+    } else if (value instanceof Date) {
+      type = "A";
+      text = String.valueOf(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      type = "X";
+      text = Base64.getEncoder().encodeToString((byte[]) value);
+    } else {
+      return null;
+    }
+
+    JsonArray typedValue = new JsonArray();
+    typedValue.add(type);
+    typedValue.add(text);
+    return typedValue;
+  }
+
+  private static Object decodeValue(JsonElement element) {
+    if (element.isJsonNull()) {
+      return null;
+    }
+
+    JsonArray typedValue = element.getAsJsonArray();
+    String text = typedValue.get(1).getAsString();
+    switch (typedValue.get(0).getAsString()) {
+      case "S":
+        return text;
+      case "I":
+        return Integer.valueOf(text);
+      case "L":
+        return Long.valueOf(text);
+      case "H":
+        return Short.valueOf(text);
+      case "Y":
+        return Byte.valueOf(text);
+      case "D":
+        return Double.valueOf(text);
+      case "F":
+        return Float.valueOf(text);
+      case "B":
+        return Boolean.valueOf(text);
+      case "N":
+        return new BigDecimal(text);
+      case "U":
+        return UUID.fromString(text);
+      case "T":
+        String[] parts = text.split(":");
+        Timestamp timestamp = new Timestamp(Long.parseLong(parts[0]));
+        timestamp.setNanos(Integer.parseInt(parts[1]));
+        return timestamp;
+      case "Q":
+        return new java.sql.Date(Long.parseLong(text));
+      case "M":
+        return new Time(Long.parseLong(text));
+      case "A":
+        return new Date(Long.parseLong(text));
+      case "X":
+        return Base64.getDecoder().decode(text);
+      default:
+        throw new IllegalArgumentException("Unknown cached type " + typedValue.get(0));
+    }
+  }
+}
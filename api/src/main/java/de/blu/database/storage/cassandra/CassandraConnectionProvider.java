@@ -2,18 +2,49 @@ package de.blu.database.storage.cassandra;
 
 import com.datastax.driver.core.*;
 import com.datastax.driver.core.exceptions.DriverException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import de.blu.database.config.cassandra.CassandraConfig;
+import de.blu.database.data.ResultTable;
 import de.blu.database.data.TableColumn;
+import de.blu.database.data.TableColumnType;
+import de.blu.database.metrics.AsyncOperation;
+import de.blu.database.metrics.CallSite;
+import de.blu.database.metrics.Metrics;
+import de.blu.database.metrics.SlowOperationRecorder;
+import de.blu.database.storage.writebehind.WriteBehindFlusher;
+import de.blu.database.storage.writebehind.WriteBehindQueue;
+import de.blu.database.util.BoundedExecutor;
+import de.blu.database.util.DatabaseExecutor;
+import de.blu.database.util.DatabaseExecutors;
 import lombok.Getter;
 
 import javax.inject.Singleton;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Singleton
 @Getter
@@ -23,12 +54,53 @@ public final class CassandraConnectionProvider implements CassandraConnection {
   private Cluster cluster;
   private KeyspaceMetadata keyspace;
   private String keyspaceName;
-  private ExecutorService executorService = Executors.newCachedThreadPool();
+  private DatabaseExecutor callbackExecutor;
+  private int executorShutdownTimeoutMillis;
+  private int maxInFlightRequests;
+  private Semaphore inFlightPermits;
+  private int maxQueuedRequests;
+  private final Queue<Runnable> queuedRequests = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queuedRequestCount = new AtomicInteger();
   private Cluster.Builder clusterBuilder;
 
+  private int preparedStatementCacheSize;
+  private int batchSize;
+  private int fetchSize;
+  private final Map<String, CompletableFuture<PreparedStatement>> preparedStatements =
+      Collections.synchronizedMap(
+          // Access ordered, so the least recently used statement is dropped when the cache is full
+          new LinkedHashMap<String, CompletableFuture<PreparedStatement>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, CompletableFuture<PreparedStatement>> eldest) {
+              return this.size() > CassandraConnectionProvider.this.getPreparedStatementCacheSize();
+            }
+          });
+
+  private boolean writeBehindEnabled;
+  private int writeBehindFlushIntervalMillis;
+  private int writeBehindMaxPendingRows;
+  private WriteBehindQueue writeBehindQueue;
+
+  private SlowOperationRecorder slowOperationRecorder;
+  private CassandraConfig cassandraConfig;
+
   @Override
   public void init(CassandraConfig cassandraConfig) {
+    this.cassandraConfig = cassandraConfig;
     this.keyspaceName = cassandraConfig.getKeySpaceName();
+    this.preparedStatementCacheSize = cassandraConfig.getPreparedStatementCacheSize();
+    this.batchSize = Math.max(1, cassandraConfig.getBatchSize());
+    this.fetchSize = Math.max(1, cassandraConfig.getFetchSize());
+    this.maxInFlightRequests = Math.max(1, cassandraConfig.getMaxInFlightRequests());
+    this.inFlightPermits = new Semaphore(this.maxInFlightRequests);
+    this.maxQueuedRequests = Math.max(1, cassandraConfig.getMaxQueuedRequests());
+    this.writeBehindEnabled = cassandraConfig.isWriteBehindEnabled();
+    this.writeBehindFlushIntervalMillis = cassandraConfig.getWriteBehindFlushIntervalMillis();
+    this.writeBehindMaxPendingRows = cassandraConfig.getWriteBehindMaxPendingRows();
+
+    this.executorShutdownTimeoutMillis = cassandraConfig.getExecutorShutdownTimeoutMillis();
+
     this.clusterBuilder = new Cluster.Builder();
 
     for (String address : cassandraConfig.getHosts()) {
@@ -43,6 +115,28 @@ public final class CassandraConnectionProvider implements CassandraConnection {
 
   @Override
   public void connect() {
+    // disconnect shuts the executor and the slow log down, so they are created on every connect
+    CassandraConfig cassandraConfig = this.getCassandraConfig();
+
+    // a dropped callback would never complete its future or release its permit. On virtual
+    // threads every in-flight request may block in its callback without holding a platform thread
+    this.callbackExecutor =
+        DatabaseExecutors.create(
+            "cassandra-callback",
+            cassandraConfig.isVirtualThreadsEnabled()
+                ? cassandraConfig.getMaxInFlightRequests()
+                : cassandraConfig.getAsyncCallbackThreads(),
+            cassandraConfig.getExecutorQueueSize(),
+            BoundedExecutor.RejectionPolicy.CALLER_RUNS,
+            cassandraConfig.isVirtualThreadsEnabled());
+
+    this.slowOperationRecorder =
+        new SlowOperationRecorder(
+            "cassandra",
+            cassandraConfig.getSlowLogThresholdMillis(),
+            cassandraConfig.getSlowLogBufferSize(),
+            cassandraConfig.getSlowLogFile());
+
     this.session = this.cluster.connect();
     this.keyspace = cluster.getMetadata().getKeyspace(this.getKeyspaceName());
 
@@ -57,6 +151,41 @@ public final class CassandraConnectionProvider implements CassandraConnection {
     }
 
     this.getSession().execute("USE " + this.getKeyspaceName() + ";");
+
+    // inserts and updates are upserts in Cassandra, so rows of a failed batch which were already
+    // written can safely be written again
+    if (this.isWriteBehindEnabled()) {
+      this.writeBehindQueue =
+          new WriteBehindQueue(
+              "cassandra",
+              new WriteBehindFlusher() {
+                @Override
+                public void flushInserts(String tableName, String[] keys, List<Object[]> rows) {
+                  CassandraConnectionProvider.this.insertBatchFuture(tableName, keys, rows).join();
+                }
+
+                @Override
+                public void flushUpdates(
+                    String tableName, String[] keys, String whereKey, List<Object[]> rows) {
+                  String query =
+                      CassandraConnectionProvider.this.buildUpdate(tableName, keys, whereKey);
+                  List<List<Object[]>> chunks = new ArrayList<>(rows.size());
+                  for (Object[] row : rows) {
+                    chunks.add(Collections.singletonList(row));
+                  }
+
+                  CassandraConnectionProvider.this
+                      .prepareAsync(query)
+                      .thenCompose(
+                          preparedStatement ->
+                              CassandraConnectionProvider.this.executeChunks(
+                                  preparedStatement, chunks))
+                      .join();
+                }
+              },
+              this.getWriteBehindFlushIntervalMillis(),
+              this.getWriteBehindMaxPendingRows());
+    }
   }
 
   @Override
@@ -65,7 +194,16 @@ public final class CassandraConnectionProvider implements CassandraConnection {
       return;
     }
 
+    // queued writes and callbacks are run while the session is still open
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().close();
+      this.writeBehindQueue = null;
+    }
+
+    this.getCallbackExecutor().shutdownGracefully(this.getExecutorShutdownTimeoutMillis());
     this.getSession().close();
+    this.getPreparedStatements().clear();
+    this.getSlowOperationRecorder().close();
   }
 
   @Override
@@ -75,79 +213,101 @@ public final class CassandraConnectionProvider implements CassandraConnection {
 
   @Override
   public Map<Integer, Map<String, Object>> getData(String query) {
-    ResultSet resultSet = this.query(query);
-    Map<Integer, Map<String, Object>> data = new LinkedHashMap<>();
+    return this.getResultTable(query).asMap();
+  }
 
-    if (resultSet == null) {
-      return data;
-    }
+  @Override
+  public ResultTable getResultTable(String query) {
+    return this.readResultTable(this.query(query));
+  }
 
-    int i = 0;
-    for (Row row : resultSet) {
-      Map<String, Object> rowData = new HashMap<>();
+  /**
+   * Get Data from a CQL query with bind markers as Map, the statement is prepared once per query
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   * @return Map with all returned data from the query
+   */
+  public Map<Integer, Map<String, Object>> getData(String query, Object... values) {
+    return this.readResultSet(this.query(query, values));
+  }
 
-      for (ColumnDefinitions.Definition column : row.getColumnDefinitions().asList()) {
-        rowData.put(column.getName(), row.getObject(column.getName()));
-      }
+  @Override
+  public Stream<Map<String, Object>> stream(String query) {
+    return this.stream(query, new Object[0]);
+  }
+
+  /**
+   * Stream the rows of a CQL query with bind markers page by page, only fetchSize rows are held in
+   * memory at once. The next page is requested in the background once half of the current page
+   * was consumed
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   * @return Stream of the returned rows, empty if the query failed
+   */
+  public Stream<Map<String, Object>> stream(String query, Object... values) {
+    if (!this.isConnected()) {
+      Exception exception = new Exception("Cassandra is not connected!");
+      exception.printStackTrace();
+      Metrics.reportError(exception);
+      return Stream.empty();
+    }
 
-      data.put(i, rowData);
-      i++;
+    ResultSet resultSet;
+    try {
+      Statement statement = this.bindStatement(query, values).setFetchSize(this.getFetchSize());
+      resultSet = this.execute(statement);
+    } catch (DriverException e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
+      return Stream.empty();
     }
 
-    return data;
+    int prefetchThreshold = this.getFetchSize() / 2;
+    Iterator<Row> iterator = resultSet.iterator();
+    Spliterator<Map<String, Object>> spliterator =
+        new Spliterators.AbstractSpliterator<Map<String, Object>>(
+            Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          @Override
+          public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+            if (resultSet.getAvailableWithoutFetching() == prefetchThreshold
+                && !resultSet.isFullyFetched()) {
+              resultSet.fetchMoreResults();
+            }
+
+            if (!iterator.hasNext()) {
+              return false;
+            }
+
+            action.accept(CassandraConnectionProvider.this.readRow(iterator.next()));
+            return true;
+          }
+        };
+
+    return StreamSupport.stream(spliterator, false);
   }
 
   @Override
-  public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
-    StringBuilder keysStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    String keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
-    }
+  public Stream<Map<String, Object>> streamAll(String tableName) {
+    return this.stream(this.buildSelect(tableName, null, null), new Object[0]);
+  }
 
-    return this.getData(
-        "SELECT " + keysString + " FROM " + this.getKeyspaceName() + "." + tableName + ";");
+  @Override
+  public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
+    return this.getData(this.buildSelect(tableName, keys, null));
   }
 
   @Override
   public void selectAsync(
       String tableName, String[] keys, Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
-        .execute(
-            () -> {
-              consumer.accept(this.select(tableName, keys));
-            });
+    this.getDataAsync(this.buildSelect(tableName, keys, null), consumer);
   }
 
   @Override
   public Map<Integer, Map<String, Object>> select(
       String tableName, String[] keys, String whereKey, Object whereValue) {
-    StringBuilder keysStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    String keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
-    }
-
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-
-    return this.getData(
-        "SELECT "
-            + keysString
-            + " FROM "
-            + this.getKeyspaceName()
-            + "."
-            + tableName
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + " ALLOW FILTERING;");
+    return this.getData(this.buildSelect(tableName, keys, whereKey), whereValue);
   }
 
   @Override
@@ -157,42 +317,36 @@ public final class CassandraConnectionProvider implements CassandraConnection {
       String whereKey,
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
-        .execute(
-            () -> {
-              consumer.accept(this.select(tableName, keys, whereKey, whereValue));
-            });
+    this.getDataAsync(this.buildSelect(tableName, keys, whereKey), consumer, whereValue);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys) {
+    return this.getDataFuture(this.buildSelect(tableName, keys, null));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.getDataFuture(this.buildSelect(tableName, keys, whereKey), whereValue);
   }
 
   @Override
   public Map<Integer, Map<String, Object>> selectAll(String tableName) {
-    return this.getData("SELECT * FROM " + this.getKeyspaceName() + "." + tableName + ";");
+    return this.getData(this.buildSelect(tableName, null, null));
   }
 
   @Override
   public void selectAllAsync(
       String tableName, Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
-        .execute(
-            () -> {
-              consumer.accept(this.selectAll(tableName));
-            });
+    this.getDataAsync(this.buildSelect(tableName, null, null), consumer);
   }
 
   @Override
   public Map<Integer, Map<String, Object>> selectAll(
       String tableName, String whereKey, Object whereValue) {
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    return this.getData(
-        "SELECT * FROM "
-            + this.getKeyspaceName()
-            + "."
-            + tableName
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + " ALLOW FILTERING;");
+    return this.getData(this.buildSelect(tableName, null, whereKey), whereValue);
   }
 
   @Override
@@ -201,11 +355,18 @@ public final class CassandraConnectionProvider implements CassandraConnection {
       String whereKey,
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
-        .execute(
-            () -> {
-              consumer.accept(this.selectAll(tableName, whereKey, whereValue));
-            });
+    this.getDataAsync(this.buildSelect(tableName, null, whereKey), consumer, whereValue);
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName) {
+    return this.getDataFuture(this.buildSelect(tableName, null, null));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.getDataFuture(this.buildSelect(tableName, null, whereKey), whereValue);
   }
 
   @Override
@@ -216,123 +377,162 @@ public final class CassandraConnectionProvider implements CassandraConnection {
     }
 
     if (!isConnected()) {
-      new Exception("Cassandra is not connected!").printStackTrace();
+      Exception exception = new Exception("Cassandra is not connected!");
+      exception.printStackTrace();
+      Metrics.reportError(exception);
       return;
     }
 
-    StringBuilder updateStringBuilder = new StringBuilder();
-    for (int i = 0; i < keys.length; i++) {
-      values[i] = values[i] instanceof String ? "'" + values[i] + "'" : values[i];
-      updateStringBuilder.append(", ").append(keys[i]).append(" = ").append(values[i]);
-    }
-    String updateString = updateStringBuilder.toString();
-    if (updateString.length() > 2) {
-      updateString = updateString.substring(2);
+    this.flushWriteBehind(tableName, whereKey, whereValue);
+    this.update(this.buildUpdate(tableName, keys, whereKey), this.append(values, whereValue));
+  }
+
+  @Override
+  public void updateAsync(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    if (keys.length != values.length) {
+      return;
     }
 
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    String cqlString =
-        "UPDATE "
-            + this.getKeyspaceName()
-            + "."
-            + tableName
-            + " SET "
-            + updateString
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + ";";
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().update(tableName, keys, values, whereKey, whereValue);
+      return;
+    }
 
-    this.update(cqlString);
+    this.updateAsync(this.buildUpdate(tableName, keys, whereKey), this.append(values, whereValue));
   }
 
   @Override
-  public void updateAsync(
+  public CompletableFuture<Void> updateFuture(
       String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
-    this.getExecutorService()
-        .execute(
-            () ->
-                CassandraConnectionProvider.this.update(
-                    tableName, keys, values, whereKey, whereValue));
+    if (keys.length != values.length) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(
+          new IllegalArgumentException("The amount of keys and values has to be equal!"));
+      return future;
+    }
+
+    return this.afterWriteBehind(
+        queue -> queue.flushRowFuture(tableName, whereKey, whereValue),
+        () ->
+            this.executeUpdateFuture(
+                this.buildUpdate(tableName, keys, whereKey), this.append(values, whereValue)));
   }
 
   @Override
   public void insertInto(String tableName, String[] keys, Object[] values) {
-    String keysString;
-    String valuesString;
+    String cqlString = this.buildInsert(tableName, keys);
 
-    StringBuilder keysStringBuilder = new StringBuilder();
-    StringBuilder valuesStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
+    if (!this.isConnected()) {
+      System.out.println("Failed CQL '" + cqlString + "' Cassandra not connected!");
+      Metrics.reportError(new IllegalStateException("Cassandra is not connected!"));
+      return;
     }
 
-    for (Object value : values) {
-      value = value instanceof String ? "'" + value + "'" : value;
-      valuesStringBuilder.append(", ").append(value);
-    }
-    valuesString = valuesStringBuilder.toString();
-    if (valuesString.length() > 2) {
-      valuesString = valuesString.substring(2);
+    this.update(cqlString, values);
+  }
+
+  @Override
+  public void insertIntoAsync(String tableName, String[] keys, Object[] values) {
+    if (this.getWriteBehindQueue() != null && keys.length == values.length) {
+      this.getWriteBehindQueue().insert(tableName, keys, values);
+      return;
     }
 
-    String cqlString =
-        "INSERT INTO "
-            + this.getKeyspaceName()
-            + "."
-            + tableName
-            + "("
-            + keysString
-            + ") VALUES("
-            + valuesString
-            + ");";
+    this.updateAsync(this.buildInsert(tableName, keys), values);
+  }
 
-    if (!this.isConnected()) {
-      System.out.println("Failed CQL '" + cqlString + "' Cassandra not connected!");
-      return;
+  @Override
+  public CompletableFuture<Void> insertIntoFuture(
+      String tableName, String[] keys, Object[] values) {
+    return this.executeUpdateFuture(this.buildInsert(tableName, keys), values);
+  }
+
+  @Override
+  public void insertBatch(String tableName, String[] keys, List<Object[]> rows) {
+    try {
+      this.insertBatchFuture(tableName, keys, rows).join();
+    } catch (Exception e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
     }
+  }
 
-    this.update(cqlString);
+  @Override
+  public void insertBatchAsync(String tableName, String[] keys, List<Object[]> rows) {
+    AsyncOperation operation = Metrics.handOver();
+    this.insertBatchFuture(tableName, keys, rows)
+        .whenComplete(
+            (result, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+
+              operation.complete(throwable);
+            });
   }
 
+  /**
+   * Insert many rows Async. Rows are grouped by their partition key and each group is sent as
+   * unlogged batches of at most batchSize rows, so every batch hits a single replica set. Without a
+   * known partition key every row is sent as its own statement. The rows are grouped and bound on
+   * the callback executor and at most maxInFlightRequests batches are pending at once, the next
+   * batch is sent once one of them is done
+   */
   @Override
-  public void insertIntoAsync(String tableName, String[] keys, Object[] values) {
-    this.getExecutorService()
-        .execute(() -> CassandraConnectionProvider.this.insertInto(tableName, keys, values));
+  public CompletableFuture<Void> insertBatchFuture(
+      String tableName, String[] keys, List<Object[]> rows) {
+    if (rows.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (!this.isConnected()) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(new IllegalStateException("Cassandra is not connected!"));
+      return future;
+    }
+
+    return this.prepareAsync(this.buildInsert(tableName, keys))
+        .thenComposeAsync(
+            preparedStatement ->
+                this.executeChunks(preparedStatement, this.getChunks(tableName, keys, rows)),
+            this.getCallbackExecutor());
   }
 
   @Override
   public void deleteFrom(String tableName, String whereKey, Object whereValue) {
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    String cqlString =
-        "DELETE FROM "
-            + this.getKeyspaceName()
-            + "."
-            + tableName
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + ";";
+    String cqlString = this.buildDelete(tableName, whereKey);
 
     if (!this.isConnected()) {
       System.out.println("Failed CQL '" + cqlString + "' Cassandra not connected!");
+      Metrics.reportError(new IllegalStateException("Cassandra is not connected!"));
       return;
     }
 
-    this.update(cqlString);
+    this.dropWriteBehind(tableName, whereKey, whereValue);
+    this.update(cqlString, whereValue);
   }
 
   @Override
   public void deleteFromAsync(String tableName, String whereKey, Object whereValue) {
-    this.getExecutorService()
-        .execute(
-            () -> CassandraConnectionProvider.this.deleteFrom(tableName, whereKey, whereValue));
+    AsyncOperation operation = Metrics.handOver();
+    this.deleteFromFuture(tableName, whereKey, whereValue)
+        .whenComplete(
+            (result, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+
+              operation.complete(throwable);
+            });
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteFromFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.afterWriteBehind(
+        queue -> queue.dropRowFuture(tableName, whereKey, whereValue),
+        () -> this.executeUpdateFuture(this.buildDelete(tableName, whereKey), whereValue));
   }
 
   @Override
@@ -393,41 +593,738 @@ public final class CassandraConnectionProvider implements CassandraConnection {
 
     query += ");";
 
-    this.update(query);
+    // Schema statements are executed once, there is nothing to gain from preparing them
+    try {
+      this.getSession().execute(query);
+    } catch (DriverException e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
+    }
   }
 
   public void update(String query) {
+    this.update(query, new Object[0]);
+  }
+
+  /**
+   * Execute a CQL query with bind markers, the statement is prepared once per query
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   */
+  public void update(String query, Object... values) {
     try {
-      this.getSession().execute(query);
-      /*
-      PreparedStatement preparedStatement = this.getSession().prepare(query);
-      this.getSession().execute(preparedStatement.bind());
-       */
+      this.execute(this.bindStatement(query, values));
     } catch (DriverException e) {
       e.printStackTrace();
+      Metrics.reportError(e);
     }
   }
 
   public void updateAsync(String query) {
-    this.getExecutorService().execute(() -> CassandraConnectionProvider.this.update(query));
+    this.updateAsync(query, new Object[0]);
+  }
+
+  /**
+   * Execute a CQL query with bind markers Async without blocking a thread
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   */
+  public void updateAsync(String query, Object... values) {
+    AsyncOperation operation = Metrics.handOver();
+    this.executeAsync(query, values)
+        .whenComplete(
+            (resultSet, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+
+              operation.complete(throwable);
+            });
   }
 
   public ResultSet query(String query) {
+    return this.query(query, new Object[0]);
+  }
+
+  /**
+   * Execute a CQL query with bind markers, the statement is prepared once per query
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   * @return the ResultSet or null if the query failed
+   */
+  public ResultSet query(String query, Object... values) {
     try {
-      return this.getSession().execute(query);
-      /*
-      PreparedStatement preparedStatement = this.getSession().prepare(query);
-      return this.getSession().execute(preparedStatement.bind());
-       */
+      return this.execute(this.bindStatement(query, values));
     } catch (DriverException e) {
       e.printStackTrace();
+      Metrics.reportError(e);
     }
 
     return null;
   }
 
   public void queryAsync(String query, Consumer<ResultSet> consumer) {
-    this.getExecutorService()
-        .execute(() -> consumer.accept(CassandraConnectionProvider.this.query(query)));
+    this.executeAsync(query)
+        .whenComplete(
+            (resultSet, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+
+              consumer.accept(resultSet);
+            });
+  }
+
+  /**
+   * Execute a CQL query with bind markers on the driver's async path. Neither preparing the
+   * statement nor waiting for the response blocks the caller, the future is completed on the
+   * callback executor. At most maxInFlightRequests queries are pending at once, further queries
+   * wait in a queue of maxQueuedRequests and fail with a RejectedExecutionException once it is
+   * full
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   * @return future which is completed with the ResultSet
+   */
+  public CompletableFuture<ResultSet> executeAsync(String query, Object... values) {
+    if (!this.isConnected()) {
+      return this.failedFuture(new IllegalStateException("Cassandra is not connected!"));
+    }
+
+    if (values.length == 0) {
+      return this.executeAsync(new SimpleStatement(query));
+    }
+
+    return this.prepareAsync(query)
+        .thenCompose(
+            preparedStatement -> this.executeAsync(this.bind(preparedStatement, values)));
+  }
+
+  private CompletableFuture<ResultSet> executeAsync(Statement statement) {
+    CompletableFuture<ResultSet> future = new CompletableFuture<>();
+    if (!this.isConnected()) {
+      future.completeExceptionally(new IllegalStateException("Cassandra is not connected!"));
+      return future;
+    }
+
+    // waiting in the queue counts as well, the caller has to wait for it too
+    CallSite callSite = this.getSlowOperationRecorder().capture();
+    long startNanos = System.nanoTime();
+
+    if (this.getQueuedRequestCount().incrementAndGet() > this.getMaxQueuedRequests()) {
+      this.getQueuedRequestCount().decrementAndGet();
+      future.completeExceptionally(
+          new RejectedExecutionException(
+              "More than " + this.getMaxQueuedRequests() + " Cassandra requests are queued"));
+      return future;
+    }
+
+    this.getQueuedRequests().add(() -> this.send(statement, future, startNanos, callSite));
+    this.sendQueuedRequests();
+    return future;
+  }
+
+  /**
+   * Send queued requests as long as in-flight permits are free. Called after a request was queued
+   * and after a response released its permit, so requests waiting for a permit are sent from the
+   * callback executor instead of blocking their caller
+   */
+  private void sendQueuedRequests() {
+    while (!this.getQueuedRequests().isEmpty() && this.getInFlightPermits().tryAcquire()) {
+      Runnable request = this.getQueuedRequests().poll();
+      if (request == null) {
+        // another thread took the last request, check again before giving up the permit
+        this.getInFlightPermits().release();
+        continue;
+      }
+
+      this.getQueuedRequestCount().decrementAndGet();
+      request.run();
+    }
+  }
+
+  // runs while holding an in-flight permit, it is released once the response arrived
+  private void send(
+      Statement statement,
+      CompletableFuture<ResultSet> future,
+      long startNanos,
+      CallSite callSite) {
+    ResultSetFuture resultSetFuture;
+    try {
+      resultSetFuture = this.getSession().executeAsync(statement);
+    } catch (RuntimeException e) {
+      // the loop in sendQueuedRequests continues with the next request
+      this.getInFlightPermits().release();
+      future.completeExceptionally(e);
+      return;
+    }
+
+    Futures.addCallback(
+        resultSetFuture,
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet resultSet) {
+            CassandraConnectionProvider.this.releaseInFlightPermit();
+            CassandraConnectionProvider.this.recordSlowOperation(
+                statement, resultSet, startNanos, callSite, null);
+            future.complete(resultSet);
+          }
+
+          @Override
+          public void onFailure(Throwable throwable) {
+            CassandraConnectionProvider.this.releaseInFlightPermit();
+            CassandraConnectionProvider.this.recordSlowOperation(
+                statement, null, startNanos, callSite, throwable);
+            future.completeExceptionally(throwable);
+          }
+        },
+        this.getCallbackExecutor());
+  }
+
+  private void releaseInFlightPermit() {
+    this.getInFlightPermits().release();
+    this.sendQueuedRequests();
+  }
+
+  /**
+   * Execute a Statement blocking and record it if it is slow
+   *
+   * @param statement the statement
+   * @return the ResultSet
+   */
+  private ResultSet execute(Statement statement) {
+    long startNanos = System.nanoTime();
+    ResultSet resultSet = null;
+    DriverException error = null;
+    try {
+      resultSet = this.getSession().execute(statement);
+      return resultSet;
+    } catch (DriverException e) {
+      error = e;
+      throw e;
+    } finally {
+      this.recordSlowOperation(statement, resultSet, startNanos, null, error);
+    }
+  }
+
+  private void recordSlowOperation(
+      Statement statement,
+      ResultSet resultSet,
+      long startNanos,
+      CallSite callSite,
+      Throwable error) {
+    if (!this.getSlowOperationRecorder().isEnabled()) {
+      return;
+    }
+
+    String query = this.getQueryString(statement);
+    int end = query.indexOf(' ');
+    this.getSlowOperationRecorder()
+        .record(
+            (end == -1 ? query : query.substring(0, end)).toUpperCase(),
+            query,
+            resultSet == null ? -1 : resultSet.getAvailableWithoutFetching(),
+            startNanos,
+            callSite,
+            error);
+  }
+
+  private String getQueryString(Statement statement) {
+    if (statement instanceof BoundStatement) {
+      return ((BoundStatement) statement).preparedStatement().getQueryString().trim();
+    }
+
+    if (statement instanceof RegularStatement) {
+      return ((RegularStatement) statement).getQueryString().trim();
+    }
+
+    if (statement instanceof BatchStatement) {
+      BatchStatement batchStatement = (BatchStatement) statement;
+      return batchStatement.getStatements().isEmpty()
+          ? "BATCH"
+          : "BATCH "
+              + batchStatement.size()
+              + " x "
+              + this.getQueryString(batchStatement.getStatements().iterator().next());
+    }
+
+    return statement.toString();
+  }
+
+  private <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+
+  /**
+   * Get the positions of the partition key columns of the table within the given keys
+   *
+   * @param tableName the tableName
+   * @param keys the keys of the rows
+   * @return the positions or null if the table is unknown or a partition key column is missing
+   */
+  private int[] getPartitionKeyIndexes(String tableName, String[] keys) {
+    KeyspaceMetadata keyspaceMetadata =
+        this.getCluster().getMetadata().getKeyspace(this.getKeyspaceName());
+    TableMetadata tableMetadata =
+        keyspaceMetadata == null ? null : keyspaceMetadata.getTable(tableName);
+    if (tableMetadata == null) {
+      return null;
+    }
+
+    List<ColumnMetadata> partitionKey = tableMetadata.getPartitionKey();
+    int[] indexes = new int[partitionKey.size()];
+    for (int i = 0; i < partitionKey.size(); i++) {
+      indexes[i] = -1;
+      for (int j = 0; j < keys.length; j++) {
+        if (partitionKey.get(i).getName().equalsIgnoreCase(keys[j])) {
+          indexes[i] = j;
+          break;
+        }
+      }
+
+      if (indexes[i] == -1) {
+        return null;
+      }
+    }
+
+    return indexes;
+  }
+
+  /**
+   * Split rows into chunks of at most batchSize rows of the same partition
+   *
+   * @param tableName the tableName
+   * @param keys the keys of the rows
+   * @param rows the rows
+   * @return the chunks, one row per chunk if the partition key is unknown
+   */
+  private List<List<Object[]>> getChunks(String tableName, String[] keys, List<Object[]> rows) {
+    int[] partitionKeyIndexes = this.getPartitionKeyIndexes(tableName, keys);
+    if (partitionKeyIndexes == null) {
+      List<List<Object[]>> chunks = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        chunks.add(Collections.singletonList(row));
+      }
+
+      return chunks;
+    }
+
+    Map<List<Object>, List<Object[]>> partitions = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      List<Object> partitionKey = new ArrayList<>(partitionKeyIndexes.length);
+      for (int index : partitionKeyIndexes) {
+        partitionKey.add(row[index]);
+      }
+
+      partitions.computeIfAbsent(partitionKey, key -> new ArrayList<>()).add(row);
+    }
+
+    List<List<Object[]>> chunks = new ArrayList<>();
+    for (List<Object[]> partitionRows : partitions.values()) {
+      for (int i = 0; i < partitionRows.size(); i += this.getBatchSize()) {
+        chunks.add(
+            partitionRows.subList(i, Math.min(partitionRows.size(), i + this.getBatchSize())));
+      }
+    }
+
+    return chunks;
+  }
+
+  /**
+   * Execute every chunk as one statement with at most maxInFlightRequests of them pending at once.
+   * The next chunk is sent from the callback of a finished one, so neither the caller nor the
+   * request queue has to hold all of them. The first failure fails the future and stops sending
+   *
+   * @param preparedStatement the statement the rows are bound to
+   * @param chunks the chunks, a chunk of more than one row is sent as unlogged batch
+   * @return future which is completed once every chunk was written
+   */
+  private CompletableFuture<Void> executeChunks(
+      PreparedStatement preparedStatement, List<List<Object[]>> chunks) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    if (chunks.isEmpty()) {
+      future.complete(null);
+      return future;
+    }
+
+    AtomicInteger nextChunk = new AtomicInteger();
+    AtomicInteger remainingChunks = new AtomicInteger(chunks.size());
+    for (int i = 0; i < Math.min(chunks.size(), this.getMaxInFlightRequests()); i++) {
+      this.executeNextChunk(preparedStatement, chunks, nextChunk, remainingChunks, future);
+    }
+
+    return future;
+  }
+
+  private void executeNextChunk(
+      PreparedStatement preparedStatement,
+      List<List<Object[]>> chunks,
+      AtomicInteger nextChunk,
+      AtomicInteger remainingChunks,
+      CompletableFuture<Void> future) {
+    int index = nextChunk.getAndIncrement();
+    if (index >= chunks.size() || future.isDone()) {
+      return;
+    }
+
+    Statement statement;
+    try {
+      statement = this.bindChunk(preparedStatement, chunks.get(index));
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+      return;
+    }
+
+    this.executeAsync(statement)
+        .whenComplete(
+            (resultSet, throwable) -> {
+              if (throwable != null) {
+                future.completeExceptionally(throwable);
+                return;
+              }
+
+              if (remainingChunks.decrementAndGet() == 0) {
+                future.complete(null);
+                return;
+              }
+
+              this.executeNextChunk(preparedStatement, chunks, nextChunk, remainingChunks, future);
+            });
+  }
+
+  private Statement bindChunk(PreparedStatement preparedStatement, List<Object[]> chunk) {
+    if (chunk.size() == 1) {
+      return this.bind(preparedStatement, chunk.get(0));
+    }
+
+    BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+    for (Object[] row : chunk) {
+      batchStatement.add(this.bind(preparedStatement, row));
+    }
+
+    return batchStatement;
+  }
+
+  private void getDataAsync(
+      String query, Consumer<Map<Integer, Map<String, Object>>> consumer, Object... values) {
+    AsyncOperation operation = Metrics.handOver();
+    this.executeAsync(query, values)
+        .whenComplete(
+            (resultSet, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+
+              Map<Integer, Map<String, Object>> data = this.readResultSet(resultSet);
+              operation.complete(throwable);
+              consumer.accept(data);
+            });
+  }
+
+  private CompletableFuture<Map<Integer, Map<String, Object>>> getDataFuture(
+      String query, Object... values) {
+    return this.executeAsync(query, values).thenApply(this::readResultSet);
+  }
+
+  /** Write the queued async writes of a row before a write of the row which has to follow them */
+  private void flushWriteBehind(String tableName, String whereKey, Object whereValue) {
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().flushRow(tableName, whereKey, whereValue);
+    }
+  }
+
+  /** Drop the queued async writes of a row before it is deleted */
+  private void dropWriteBehind(String tableName, String whereKey, Object whereValue) {
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().dropRow(tableName, whereKey, whereValue);
+    }
+  }
+
+  /**
+   * Run a write after the queued async writes of its row were written or dropped
+   *
+   * @param pending writes or drops the queued writes of the row
+   * @param write starts the write
+   * @return future of the write
+   */
+  private CompletableFuture<Void> afterWriteBehind(
+      Function<WriteBehindQueue, CompletableFuture<Void>> pending,
+      Supplier<CompletableFuture<Void>> write) {
+    if (this.getWriteBehindQueue() == null || this.getWriteBehindQueue().getPendingRows() == 0) {
+      return write.get();
+    }
+
+    return pending.apply(this.getWriteBehindQueue()).thenCompose(result -> write.get());
+  }
+
+  private CompletableFuture<Void> executeUpdateFuture(String query, Object... values) {
+    return this.executeAsync(query, values).thenApply(resultSet -> null);
+  }
+
+  private String buildSelect(String tableName, String[] keys, String whereKey) {
+    StringBuilder queryBuilder =
+        new StringBuilder("SELECT ")
+            .append(keys == null ? "*" : String.join(", ", keys))
+            .append(" FROM ")
+            .append(this.getKeyspaceName())
+            .append(".")
+            .append(tableName);
+
+    if (whereKey != null) {
+      queryBuilder.append(" WHERE ").append(whereKey).append(" = ? ALLOW FILTERING");
+    }
+
+    return queryBuilder.append(";").toString();
+  }
+
+  private String buildUpdate(String tableName, String[] keys, String whereKey) {
+    StringBuilder queryBuilder =
+        new StringBuilder("UPDATE ")
+            .append(this.getKeyspaceName())
+            .append(".")
+            .append(tableName)
+            .append(" SET ");
+    for (int i = 0; i < keys.length; i++) {
+      if (i > 0) {
+        queryBuilder.append(", ");
+      }
+
+      queryBuilder.append(keys[i]).append(" = ?");
+    }
+
+    return queryBuilder.append(" WHERE ").append(whereKey).append(" = ?;").toString();
+  }
+
+  private String buildInsert(String tableName, String[] keys) {
+    StringBuilder queryBuilder =
+        new StringBuilder("INSERT INTO ")
+            .append(this.getKeyspaceName())
+            .append(".")
+            .append(tableName)
+            .append("(")
+            .append(String.join(", ", keys))
+            .append(") VALUES(");
+    for (int i = 0; i < keys.length; i++) {
+      queryBuilder.append(i > 0 ? ", ?" : "?");
+    }
+
+    return queryBuilder.append(");").toString();
+  }
+
+  private String buildDelete(String tableName, String whereKey) {
+    return "DELETE FROM " + this.getKeyspaceName() + "." + tableName + " WHERE " + whereKey + " = ?;";
+  }
+
+  private Object[] append(Object[] values, Object value) {
+    Object[] result = new Object[values.length + 1];
+    System.arraycopy(values, 0, result, 0, values.length);
+    result[values.length] = value;
+    return result;
+  }
+
+  /**
+   * Bind the values to the cached PreparedStatement of the query. A query without values is sent
+   * as SimpleStatement like a raw MySQL query, so ad-hoc CQL does not push the table operations out
+   * of the cache. Blocks while the query is prepared, the async methods use prepareAsync instead
+   *
+   * @param query the query with ? bind markers
+   * @param values the values for the bind markers
+   * @return the Statement ready for execution
+   */
+  private Statement bindStatement(String query, Object... values) {
+    if (values.length == 0) {
+      return new SimpleStatement(query);
+    }
+
+    PreparedStatement preparedStatement;
+    try {
+      preparedStatement = this.prepareAsync(query).join();
+    } catch (CompletionException e) {
+      // the callers handle the DriverException like the one of a blocking prepare
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+
+    return this.bind(preparedStatement, values);
+  }
+
+  /**
+   * Get the cached PreparedStatement of the query or prepare it without blocking. Concurrent
+   * callers of a query which is not cached yet share one prepare request, a failed prepare is
+   * removed from the cache so the next call tries again
+   *
+   * @param query the query with ? bind markers
+   * @return future which is completed with the PreparedStatement
+   */
+  private CompletableFuture<PreparedStatement> prepareAsync(String query) {
+    CompletableFuture<PreparedStatement> preparing = new CompletableFuture<>();
+    synchronized (this.getPreparedStatements()) {
+      CompletableFuture<PreparedStatement> cached = this.getPreparedStatements().get(query);
+      if (cached != null) {
+        return cached;
+      }
+
+      this.getPreparedStatements().put(query, preparing);
+    }
+
+    try {
+      // completed on the driver thread, the dependents only bind and send without blocking
+      Futures.addCallback(
+          this.getSession().prepareAsync(query),
+          new FutureCallback<PreparedStatement>() {
+            @Override
+            public void onSuccess(PreparedStatement preparedStatement) {
+              preparing.complete(preparedStatement);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+              CassandraConnectionProvider.this.getPreparedStatements().remove(query, preparing);
+              preparing.completeExceptionally(throwable);
+            }
+          },
+          MoreExecutors.directExecutor());
+    } catch (RuntimeException e) {
+      this.getPreparedStatements().remove(query, preparing);
+      preparing.completeExceptionally(e);
+    }
+
+    return preparing;
+  }
+
+  private Statement bind(PreparedStatement preparedStatement, Object... values) {
+    ColumnDefinitions variables = preparedStatement.getVariables();
+    Object[] boundValues = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      boundValues[i] = this.convertValue(variables.getType(i), values[i]);
+    }
+
+    return preparedStatement.bind(boundValues);
+  }
+
+  /**
+   * Convert a value to the java type the driver codec expects for the column, inlined CQL was
+   * forgiving about e.g. an Integer for a bigint column, bound values are not
+   *
+   * @param dataType the type of the bind marker
+   * @param value the value to convert
+   * @return the converted value
+   */
+  private Object convertValue(DataType dataType, Object value) {
+    if (value == null) {
+      return null;
+    }
+
+    switch (dataType.getName()) {
+      case INT:
+        return value instanceof Number ? ((Number) value).intValue() : value;
+      case BIGINT:
+      case COUNTER:
+        return value instanceof Number ? ((Number) value).longValue() : value;
+      case SMALLINT:
+        return value instanceof Number ? ((Number) value).shortValue() : value;
+      case TINYINT:
+        return value instanceof Number ? ((Number) value).byteValue() : value;
+      case DOUBLE:
+        return value instanceof Number ? ((Number) value).doubleValue() : value;
+      case FLOAT:
+        return value instanceof Number ? ((Number) value).floatValue() : value;
+      case VARINT:
+        return value instanceof Number && !(value instanceof BigInteger)
+            ? BigInteger.valueOf(((Number) value).longValue())
+            : value;
+      case DECIMAL:
+        return value instanceof Number && !(value instanceof BigDecimal)
+            ? new BigDecimal(value.toString())
+            : value;
+      case UUID:
+      case TIMEUUID:
+        return value instanceof String ? UUID.fromString((String) value) : value;
+      case TEXT:
+      case VARCHAR:
+      case ASCII:
+        return value instanceof String ? value : value.toString();
+      default:
+        return value;
+    }
+  }
+
+  private Map<Integer, Map<String, Object>> readResultSet(ResultSet resultSet) {
+    return this.readResultTable(resultSet).asMap();
+  }
+
+  private ResultTable readResultTable(ResultSet resultSet) {
+    if (resultSet == null) {
+      return ResultTable.empty();
+    }
+
+    List<ColumnDefinitions.Definition> definitions = resultSet.getColumnDefinitions().asList();
+    int columns = definitions.size();
+
+    String[] columnNames = new String[columns];
+    TableColumnType[] columnTypes = new TableColumnType[columns];
+    for (int j = 0; j < columns; j++) {
+      columnNames[j] = definitions.get(j).getName();
+      columnTypes[j] = this.getColumnType(definitions.get(j).getType());
+    }
+
+    ResultTable resultTable = new ResultTable(columnNames, columnTypes);
+
+    for (Row row : resultSet) {
+      int rowIndex = resultTable.addRow();
+      for (int j = 0; j < columns; j++) {
+        if (row.isNull(j)) {
+          resultTable.setNull(rowIndex, j);
+          continue;
+        }
+
+        TableColumnType columnType = columnTypes[j];
+        if (columnType == TableColumnType.INTEGER) {
+          resultTable.setInt(rowIndex, j, row.getInt(j));
+        } else if (columnType == TableColumnType.BIGINT) {
+          resultTable.setLong(rowIndex, j, row.getLong(j));
+        } else if (columnType == TableColumnType.BOOLEAN) {
+          resultTable.setBoolean(rowIndex, j, row.getBool(j));
+        } else {
+          resultTable.setObject(rowIndex, j, row.getObject(j));
+        }
+      }
+    }
+
+    return resultTable;
+  }
+
+  /**
+   * Get the type in which a column can be stored unboxed
+   *
+   * @param dataType the type of the column
+   * @return the type or null if the values have to be stored as Object
+   */
+  private TableColumnType getColumnType(DataType dataType) {
+    switch (dataType.getName()) {
+      case INT:
+        return TableColumnType.INTEGER;
+      case BIGINT:
+      case COUNTER:
+        return TableColumnType.BIGINT;
+      case BOOLEAN:
+        return TableColumnType.BOOLEAN;
+      default:
+        return null;
+    }
+  }
+
+  private Map<String, Object> readRow(Row row) {
+    Map<String, Object> rowData = new HashMap<>();
+
+    for (ColumnDefinitions.Definition column : row.getColumnDefinitions().asList()) {
+      rowData.put(column.getName(), row.getObject(column.getName()));
+    }
+
+    return rowData;
   }
 }
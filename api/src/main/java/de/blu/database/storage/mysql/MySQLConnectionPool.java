@@ -0,0 +1,259 @@
+package de.blu.database.storage.mysql;
+
+import lombok.Getter;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+public final class MySQLConnectionPool {
+
+  /** Connections which were used within this time are handed out without a validation ping */
+  private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+  private final String url;
+  private final String userName;
+  private final String password;
+  private final int minSize;
+  private final int maxSize;
+  private final long idleTimeoutMillis;
+  private final long borrowTimeoutMillis;
+  private final int validationTimeoutSeconds;
+  private final int statementCacheSize;
+
+  private final BlockingDeque<MySQLPooledConnection> idleConnections = new LinkedBlockingDeque<>();
+  private final Semaphore permits;
+  private final AtomicInteger totalConnections = new AtomicInteger();
+  private final AtomicLong borrowCount = new AtomicLong();
+  private final AtomicLong borrowTimeouts = new AtomicLong();
+  private final AtomicLong borrowWaitNanos = new AtomicLong();
+
+  private ScheduledExecutorService evictionService;
+  private volatile boolean closed = true;
+
+  public MySQLConnectionPool(
+      String url,
+      String userName,
+      String password,
+      int minSize,
+      int maxSize,
+      long idleTimeoutMillis,
+      long borrowTimeoutMillis,
+      int validationTimeoutSeconds,
+      int statementCacheSize) {
+    this.url = url;
+    this.userName = userName;
+    this.password = password;
+    this.maxSize = Math.max(1, maxSize);
+    this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.borrowTimeoutMillis = borrowTimeoutMillis;
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+    this.statementCacheSize = statementCacheSize;
+    this.permits = new Semaphore(this.maxSize, true);
+  }
+
+  /**
+   * Open the Pool, create the minimum amount of Connections and start the idle eviction
+   *
+   * @throws SQLException if the first Connections could not be created
+   */
+  public void open() throws SQLException {
+    this.closed = false;
+
+    try {
+      this.fillToMinimum();
+    } catch (SQLException e) {
+      this.close();
+      throw e;
+    }
+
+    if (this.getIdleTimeoutMillis() <= 0) {
+      return;
+    }
+
+    long interval = Math.max(1000, this.getIdleTimeoutMillis() / 2);
+    this.evictionService =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "database-mysql-pool-eviction");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.evictionService.scheduleWithFixedDelay(
+        this::evictIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /** Close the Pool and all idle Connections, borrowed Connections are closed on release */
+  public void close() {
+    this.closed = true;
+
+    if (this.evictionService != null) {
+      this.evictionService.shutdownNow();
+      this.evictionService = null;
+    }
+
+    MySQLPooledConnection connection;
+    while ((connection = this.getIdleConnections().pollFirst()) != null) {
+      this.discard(connection);
+    }
+  }
+
+  /**
+   * Borrow a Connection from the Pool, it has to be handed back with {@link
+   * #release(MySQLPooledConnection)}
+   *
+   * @return a validated Connection
+   * @throws SQLException if the Pool is closed, no Connection was free within the borrow timeout
+   *     or a new Connection could not be created
+   */
+  public MySQLPooledConnection borrow() throws SQLException {
+    if (this.isClosed()) {
+      throw new SQLException("MySQL connection pool is closed!");
+    }
+
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = this.getPermits().tryAcquire(this.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a MySQL connection", e);
+    }
+    this.getBorrowWaitNanos().addAndGet(System.nanoTime() - start);
+
+    if (!acquired) {
+      this.getBorrowTimeouts().incrementAndGet();
+      throw new SQLTimeoutException(
+          "Timed out after "
+              + this.getBorrowTimeoutMillis()
+              + "ms waiting for a MySQL connection ("
+              + this.getActiveConnections()
+              + "/"
+              + this.getMaxSize()
+              + " in use)");
+    }
+
+    this.getBorrowCount().incrementAndGet();
+
+    try {
+      MySQLPooledConnection connection;
+      while ((connection = this.getIdleConnections().pollFirst()) != null) {
+        if (this.validate(connection)) {
+          return connection;
+        }
+
+        this.discard(connection);
+      }
+
+      return this.create();
+    } catch (SQLException | RuntimeException e) {
+      this.getPermits().release();
+      throw e;
+    }
+  }
+
+  /**
+   * Hand a borrowed Connection back to the Pool
+   *
+   * @param connection the Connection which was returned by {@link #borrow()}
+   */
+  public void release(MySQLPooledConnection connection) {
+    if (this.isClosed() || !connection.isOpen()) {
+      this.discard(connection);
+    } else {
+      // LIFO keeps the hot connections busy and lets the cold ones run into the idle timeout
+      connection.setLastUsed(System.currentTimeMillis());
+      this.getIdleConnections().offerFirst(connection);
+    }
+
+    this.getPermits().release();
+  }
+
+  /**
+   * Get the amount of Connections which are currently borrowed
+   *
+   * @return the amount of borrowed Connections
+   */
+  public int getActiveConnections() {
+    return Math.max(0, this.getTotalConnections().get() - this.getIdleConnections().size());
+  }
+
+  /**
+   * Get the average time a caller had to wait for a Connection
+   *
+   * @return the average wait time in milliseconds
+   */
+  public double getAverageBorrowWaitMillis() {
+    long borrows = this.getBorrowCount().get() + this.getBorrowTimeouts().get();
+    if (borrows == 0) {
+      return 0;
+    }
+
+    return this.getBorrowWaitNanos().get() / (double) borrows / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private boolean validate(MySQLPooledConnection connection) {
+    if (System.currentTimeMillis() - connection.getLastUsed() < VALIDATION_BYPASS_MILLIS) {
+      return connection.isOpen();
+    }
+
+    try {
+      return connection.getConnection().isValid(this.getValidationTimeoutSeconds());
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private MySQLPooledConnection create() throws SQLException {
+    MySQLPooledConnection connection =
+        new MySQLPooledConnection(
+            DriverManager.getConnection(this.getUrl(), this.getUserName(), this.getPassword()),
+            this.getStatementCacheSize());
+    this.getTotalConnections().incrementAndGet();
+    return connection;
+  }
+
+  private void discard(MySQLPooledConnection connection) {
+    this.getTotalConnections().decrementAndGet();
+    connection.close();
+  }
+
+  private void fillToMinimum() throws SQLException {
+    while (!this.isClosed() && this.getTotalConnections().get() < this.getMinSize()) {
+      this.getIdleConnections().offerLast(this.create());
+    }
+  }
+
+  private void evictIdleConnections() {
+    long now = System.currentTimeMillis();
+    for (MySQLPooledConnection connection : this.getIdleConnections()) {
+      if (this.getTotalConnections().get() <= this.getMinSize()) {
+        break;
+      }
+
+      if (now - connection.getLastUsed() < this.getIdleTimeoutMillis()) {
+        continue;
+      }
+
+      if (this.getIdleConnections().remove(connection)) {
+        this.discard(connection);
+      }
+    }
+
+    try {
+      this.fillToMinimum();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -1,25 +1,43 @@
 package de.blu.database.storage.mysql;
 
 import de.blu.database.config.mysql.MySQLConfig;
+import de.blu.database.data.ResultTable;
 import de.blu.database.data.TableColumn;
+import de.blu.database.data.TableColumnType;
+import de.blu.database.metrics.AsyncOperation;
+import de.blu.database.metrics.Metrics;
+import de.blu.database.metrics.SlowOperationRecorder;
+import de.blu.database.storage.writebehind.WriteBehindFlusher;
+import de.blu.database.storage.writebehind.WriteBehindQueue;
+import de.blu.database.util.BoundedExecutor;
+import de.blu.database.util.DatabaseExecutor;
+import de.blu.database.util.DatabaseExecutors;
 import lombok.Getter;
 
 import javax.inject.Singleton;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Singleton
 @Getter
 public final class MySQLConnectionProvider implements MySQLConnection {
 
-  private Connection connection;
-  private ExecutorService executorService = Executors.newCachedThreadPool();
+  private MySQLConnectionPool connectionPool;
+  private DatabaseExecutor executorService;
+  private Executor asyncExecutor;
+  private int executorShutdownTimeoutMillis;
 
   private String host;
   private int port;
@@ -27,29 +45,141 @@ public final class MySQLConnectionProvider implements MySQLConnection {
   private String password;
   private String database;
 
+  private boolean poolEnabled;
+  private int poolMinSize;
+  private int poolMaxSize;
+  private int poolIdleTimeoutSeconds;
+  private int poolBorrowTimeoutMillis;
+  private int poolValidationTimeoutSeconds;
+  private int statementCacheSize;
+  private int batchSize;
+  private int fetchSize;
+
+  private boolean writeBehindEnabled;
+  private int writeBehindFlushIntervalMillis;
+  private int writeBehindMaxPendingRows;
+  private WriteBehindQueue writeBehindQueue;
+
+  private SlowOperationRecorder slowOperationRecorder;
+  private MySQLConfig mySQLConfig;
+
   @Override
   public void init(MySQLConfig mySQLConfig) {
+    this.mySQLConfig = mySQLConfig;
     this.host = mySQLConfig.getHost();
     this.port = mySQLConfig.getPort();
     this.userName = mySQLConfig.getUserName();
     this.password = mySQLConfig.getPassword();
     this.database = mySQLConfig.getDatabase();
+
+    this.poolEnabled = mySQLConfig.isPoolEnabled();
+    this.poolMinSize = mySQLConfig.getPoolMinSize();
+    this.poolMaxSize = mySQLConfig.getPoolMaxSize();
+    this.poolIdleTimeoutSeconds = mySQLConfig.getPoolIdleTimeoutSeconds();
+    this.poolBorrowTimeoutMillis = mySQLConfig.getPoolBorrowTimeoutMillis();
+    this.poolValidationTimeoutSeconds = mySQLConfig.getPoolValidationTimeoutSeconds();
+    this.statementCacheSize = mySQLConfig.getStatementCacheSize();
+    this.batchSize = Math.max(1, mySQLConfig.getBatchSize());
+    this.fetchSize = Math.max(1, mySQLConfig.getFetchSize());
+
+    this.writeBehindEnabled = mySQLConfig.isWriteBehindEnabled();
+    this.writeBehindFlushIntervalMillis = mySQLConfig.getWriteBehindFlushIntervalMillis();
+    this.writeBehindMaxPendingRows = mySQLConfig.getWriteBehindMaxPendingRows();
+
+    this.executorShutdownTimeoutMillis = mySQLConfig.getExecutorShutdownTimeoutMillis();
+
+    // a task which a saturated executor rejects is reported instead of thrown at the caller, the
+    // futures are failed with the rejection by supplyFuture. The instrumented async operation of
+    // the caller is recorded once the task is done
+    this.asyncExecutor =
+        task -> {
+          AsyncOperation operation = Metrics.handOver();
+          try {
+            this.submit(operation.wrap(task));
+          } catch (RejectedExecutionException e) {
+            e.printStackTrace();
+            operation.complete(e);
+          }
+        };
   }
 
   @Override
   public void connect() {
+    // disconnect shuts the executor and the slow log down, so they are created on every connect
+    MySQLConfig mySQLConfig = this.getMySQLConfig();
+
+    // every running virtual thread holds a Connection, so more of them than the pool size would
+    // only wait for the pool
+    this.executorService =
+        DatabaseExecutors.create(
+            "mysql-worker",
+            mySQLConfig.isVirtualThreadsEnabled()
+                ? (this.isPoolEnabled() ? this.getPoolMaxSize() : 1)
+                : mySQLConfig.getExecutorThreads(),
+            mySQLConfig.getExecutorQueueSize(),
+            BoundedExecutor.RejectionPolicy.of(
+                mySQLConfig.getExecutorRejectionPolicy(), BoundedExecutor.RejectionPolicy.ABORT),
+            mySQLConfig.isVirtualThreadsEnabled());
+
+    this.slowOperationRecorder =
+        new SlowOperationRecorder(
+            "mysql",
+            mySQLConfig.getSlowLogThresholdMillis(),
+            mySQLConfig.getSlowLogBufferSize(),
+            mySQLConfig.getSlowLogFile());
+
+    // Without pooling every caller shares one Connection, just like a Pool with a single slot
+    int minSize = this.isPoolEnabled() ? this.getPoolMinSize() : 1;
+    int maxSize = this.isPoolEnabled() ? this.getPoolMaxSize() : 1;
+
+    MySQLConnectionPool connectionPool =
+        new MySQLConnectionPool(
+            "jdbc:mysql://"
+                + this.host
+                + ":"
+                + this.port
+                + "/"
+                + this.database
+                + "?autoReconnect=true&useSSL=false&useServerPrepStmts=true"
+                + "&rewriteBatchedStatements=true&useCursorFetch=true",
+            this.userName,
+            this.password,
+            minSize,
+            maxSize,
+            TimeUnit.SECONDS.toMillis(this.getPoolIdleTimeoutSeconds()),
+            this.getPoolBorrowTimeoutMillis(),
+            this.getPoolValidationTimeoutSeconds(),
+            this.getStatementCacheSize());
+
     try {
-      this.connection =
-          DriverManager.getConnection(
-              "jdbc:mysql://"
-                  + this.host
-                  + ":"
-                  + this.port
-                  + "/"
-                  + this.database
-                  + "?autoReconnect=true&useSSL=false",
-              this.userName,
-              this.password);
+      connectionPool.open();
+      this.connectionPool = connectionPool;
+
+      if (this.isWriteBehindEnabled()) {
+        this.writeBehindQueue =
+            new WriteBehindQueue(
+                "mysql",
+                new WriteBehindFlusher() {
+                  @Override
+                  public void flushInserts(String tableName, String[] keys, List<Object[]> rows)
+                      throws Exception {
+                    MySQLConnectionProvider.this.executeBatch(
+                        MySQLConnectionProvider.this.buildInsert(tableName, keys), rows, true);
+                  }
+
+                  @Override
+                  public void flushUpdates(
+                      String tableName, String[] keys, String whereKey, List<Object[]> rows)
+                      throws Exception {
+                    MySQLConnectionProvider.this.executeBatch(
+                        MySQLConnectionProvider.this.buildUpdate(tableName, keys, whereKey),
+                        rows,
+                        true);
+                  }
+                },
+                this.getWriteBehindFlushIntervalMillis(),
+                this.getWriteBehindMaxPendingRows());
+      }
     } catch (SQLException e) {
       e.printStackTrace();
     }
@@ -61,82 +191,147 @@ public final class MySQLConnectionProvider implements MySQLConnection {
       return;
     }
 
+    // queued async tasks and writes are run while the pool is still open
+    this.getExecutorService().shutdownGracefully(this.getExecutorShutdownTimeoutMillis());
+
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().close();
+      this.writeBehindQueue = null;
+    }
+
     try {
-      this.getConnection().close();
+      this.getConnectionPool().close();
     } catch (Exception e) {
       e.printStackTrace();
     }
+
+    this.getSlowOperationRecorder().close();
   }
 
   @Override
   public boolean isConnected() {
-    if (this.getConnection() == null) {
-      return false;
-    }
+    return this.getConnectionPool() != null && !this.getConnectionPool().isClosed();
+  }
 
+  @Override
+  public Map<Integer, Map<String, Object>> getData(String query) {
+    return this.getResultTable(query).asMap();
+  }
+
+  @Override
+  public ResultTable getResultTable(String query) {
+    ResultTable resultTable =
+        this.withConnection(
+            query,
+            connection -> {
+              try (Statement statement = connection.getConnection().createStatement();
+                  ResultSet resultSet = statement.executeQuery(query)) {
+                return this.readResultTable(resultSet);
+              }
+            });
+
+    return resultTable == null ? ResultTable.empty() : resultTable;
+  }
+
+  /**
+   * Get Data from a parameterized query as Map, the PreparedStatement is cached on the Connection
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   * @return Map with all returned data from the query
+   */
+  public Map<Integer, Map<String, Object>> getData(String query, Object... parameters) {
     try {
-      return !this.getConnection().isClosed();
-    } catch (SQLException throwables) {
-      throwables.printStackTrace();
+      return this.readPrepared(query, parameters).asMap();
+    } catch (SQLException e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
     }
 
-    return false;
+    return new LinkedHashMap<>();
   }
 
   @Override
-  public Map<Integer, Map<String, Object>> getData(String query) {
-    ResultSet resultSet = this.query(query);
-    Map<Integer, Map<String, Object>> data = new LinkedHashMap<>();
+  public Stream<Map<String, Object>> stream(String query) {
+    return this.stream(query, new Object[0]);
+  }
 
-    if (resultSet == null) {
-      return data;
+  /**
+   * Stream the rows of a parameterized query through a server side cursor, only fetchSize rows
+   * are held in memory at once. The borrowed Connection is handed back when the Stream is closed
+   * or fully consumed
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   * @return Stream of the returned rows, empty if the query failed
+   */
+  public Stream<Map<String, Object>> stream(String query, Object... parameters) {
+    if (!this.isConnected()) {
+      Exception exception = new Exception("MySQL is not connected!");
+      exception.printStackTrace();
+      Metrics.reportError(exception);
+      return Stream.empty();
     }
 
+    MySQLPooledConnection connection = null;
+    PreparedStatement statement = null;
     try {
-      ResultSetMetaData md = resultSet.getMetaData();
-      int columns = md.getColumnCount();
+      connection = this.getConnectionPool().borrow();
+
+      // Cursor statements keep server side state, so they are not taken from the statement cache
+      statement =
+          connection
+              .getConnection()
+              .prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(this.getFetchSize());
+      for (int i = 0; i < parameters.length; i++) {
+        this.bindParameter(statement, i + 1, parameters[i]);
+      }
 
-      int i = 0;
+      long startNanos = System.nanoTime();
+      ResultSet resultSet = statement.executeQuery();
+      if (this.getSlowOperationRecorder().isEnabled()) {
+        this.getSlowOperationRecorder()
+            .record(this.getOperation(query), query, -1, startNanos, null, null);
+      }
+
+      MySQLRowSpliterator spliterator =
+          new MySQLRowSpliterator(this.getConnectionPool(), connection, statement, resultSet);
+      return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    } catch (SQLException e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
 
-      while (resultSet.next()) {
-        Map<String, Object> row = new HashMap<>();
-        for (int j = 1; j <= columns; ++j) {
-          row.put(md.getColumnName(j), resultSet.getObject(j));
+      if (statement != null) {
+        try {
+          statement.close();
+        } catch (SQLException closeException) {
+          closeException.printStackTrace();
         }
+      }
 
-        data.put(i++, row);
+      if (connection != null) {
+        this.getConnectionPool().release(connection);
       }
-    } catch (Exception e) {
-      e.printStackTrace();
     }
 
-    try {
-      resultSet.close();
-    } catch (SQLException e) {
-      e.printStackTrace();
-    }
+    return Stream.empty();
+  }
 
-    return data;
+  @Override
+  public Stream<Map<String, Object>> streamAll(String tableName) {
+    return this.stream(this.buildSelect(tableName, null, null), new Object[0]);
   }
 
   @Override
   public Map<Integer, Map<String, Object>> select(String tableName, String[] keys) {
-    StringBuilder keysStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    String keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
-    }
-
-    return this.getData("SELECT " + keysString + " FROM " + tableName + ";");
+    return this.getData(this.buildSelect(tableName, keys, null), new Object[0]);
   }
 
   @Override
   public void selectAsync(
       String tableName, String[] keys, Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
+    this.getAsyncExecutor()
         .execute(
             () -> {
               consumer.accept(this.select(tableName, keys));
@@ -146,19 +341,7 @@ public final class MySQLConnectionProvider implements MySQLConnection {
   @Override
   public Map<Integer, Map<String, Object>> select(
       String tableName, String[] keys, String whereKey, Object whereValue) {
-    StringBuilder keysStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    String keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
-    }
-
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-
-    return this.getData(
-        "SELECT " + keysString + " FROM " + tableName + " WHERE " + whereKey + " = " + whereValue);
+    return this.getData(this.buildSelect(tableName, keys, whereKey), whereValue);
   }
 
   @Override
@@ -168,22 +351,34 @@ public final class MySQLConnectionProvider implements MySQLConnection {
       String whereKey,
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
+    this.getAsyncExecutor()
         .execute(
             () -> {
               consumer.accept(this.select(tableName, keys, whereKey, whereValue));
             });
   }
 
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys) {
+    return this.getDataFuture(this.buildSelect(tableName, keys, null));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectFuture(
+      String tableName, String[] keys, String whereKey, Object whereValue) {
+    return this.getDataFuture(this.buildSelect(tableName, keys, whereKey), whereValue);
+  }
+
   @Override
   public Map<Integer, Map<String, Object>> selectAll(String tableName) {
-    return this.getData("SELECT * FROM " + tableName + ";");
+    return this.getData(this.buildSelect(tableName, null, null), new Object[0]);
   }
 
   @Override
   public void selectAllAsync(
       String tableName, Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
+    this.getAsyncExecutor()
         .execute(
             () -> {
               consumer.accept(this.selectAll(tableName));
@@ -193,15 +388,7 @@ public final class MySQLConnectionProvider implements MySQLConnection {
   @Override
   public Map<Integer, Map<String, Object>> selectAll(
       String tableName, String whereKey, Object whereValue) {
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    return this.getData(
-        "SELECT * FROM "
-            + tableName
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + ";");
+    return this.getData(this.buildSelect(tableName, null, whereKey), whereValue);
   }
 
   @Override
@@ -210,13 +397,24 @@ public final class MySQLConnectionProvider implements MySQLConnection {
       String whereKey,
       Object whereValue,
       Consumer<Map<Integer, Map<String, Object>>> consumer) {
-    this.getExecutorService()
+    this.getAsyncExecutor()
         .execute(
             () -> {
               consumer.accept(this.selectAll(tableName, whereKey, whereValue));
             });
   }
 
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(String tableName) {
+    return this.getDataFuture(this.buildSelect(tableName, null, null));
+  }
+
+  @Override
+  public CompletableFuture<Map<Integer, Map<String, Object>>> selectAllFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.getDataFuture(this.buildSelect(tableName, null, whereKey), whereValue);
+  }
+
   @Override
   public void update(
       String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
@@ -225,104 +423,141 @@ public final class MySQLConnectionProvider implements MySQLConnection {
     }
 
     if (!isConnected()) {
-      new Exception("MySQL is not connected!").printStackTrace();
+      Exception exception = new Exception("MySQL is not connected!");
+      exception.printStackTrace();
+      Metrics.reportError(exception);
       return;
     }
 
-    StringBuilder updateStringBuilder = new StringBuilder();
-    for (int i = 0; i < keys.length; i++) {
-      values[i] = values[i] instanceof String ? "'" + values[i] + "'" : values[i];
-      updateStringBuilder.append(", ").append(keys[i]).append(" = ").append(values[i]);
-    }
-    String updateString = updateStringBuilder.toString();
-    if (updateString.length() > 2) {
-      updateString = updateString.substring(2);
-    }
-
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    String cqlString =
-        "UPDATE "
-            + tableName
-            + " SET "
-            + updateString
-            + " WHERE "
-            + whereKey
-            + " = "
-            + whereValue
-            + ";";
-
-    this.update(cqlString);
+    this.flushWriteBehind(tableName, whereKey, whereValue);
+    this.update(this.buildUpdate(tableName, keys, whereKey), this.append(values, whereValue));
   }
 
   @Override
   public void updateAsync(
       String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
-    this.getExecutorService()
+    if (this.getWriteBehindQueue() != null && keys.length == values.length) {
+      this.getWriteBehindQueue().update(tableName, keys, values, whereKey, whereValue);
+      return;
+    }
+
+    this.getAsyncExecutor()
         .execute(
             () ->
                 MySQLConnectionProvider.this.update(tableName, keys, values, whereKey, whereValue));
   }
 
   @Override
-  public void insertInto(String tableName, String[] keys, Object[] values) {
-    String keysString;
-    String valuesString;
-
-    StringBuilder keysStringBuilder = new StringBuilder();
-    StringBuilder valuesStringBuilder = new StringBuilder();
-    for (String key : keys) {
-      keysStringBuilder.append(", ").append(key);
-    }
-    keysString = keysStringBuilder.toString();
-    if (keysString.length() > 2) {
-      keysString = keysString.substring(2);
+  public CompletableFuture<Void> updateFuture(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    if (keys.length != values.length) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      future.completeExceptionally(
+          new IllegalArgumentException("The amount of keys and values has to be equal!"));
+      return future;
     }
 
-    for (Object value : values) {
-      value = value instanceof String ? "'" + value + "'" : value;
-      valuesStringBuilder.append(", ").append(value);
-    }
-    valuesString = valuesStringBuilder.toString();
-    if (valuesString.length() > 2) {
-      valuesString = valuesString.substring(2);
-    }
+    return this.supplyFuture(
+        () -> {
+          this.flushWriteBehind(tableName, whereKey, whereValue);
+          this.withPreparedStatement(
+              this.buildUpdate(tableName, keys, whereKey),
+              this.append(values, whereValue),
+              PreparedStatement::executeUpdate);
+          return null;
+        });
+  }
 
-    String cqlString =
-        "INSERT INTO " + tableName + "(" + keysString + ") VALUES(" + valuesString + ");";
+  @Override
+  public void insertInto(String tableName, String[] keys, Object[] values) {
+    String query = this.buildInsert(tableName, keys);
 
     if (!this.isConnected()) {
-      System.out.println("Failed SQL Query '" + cqlString + "' MySQL not connected!");
+      System.out.println("Failed SQL Query '" + query + "' MySQL not connected!");
+      Metrics.reportError(new SQLException("MySQL is not connected!"));
       return;
     }
 
-    this.update(cqlString);
+    this.update(query, values);
   }
 
   @Override
   public void insertIntoAsync(String tableName, String[] keys, Object[] values) {
-    this.getExecutorService()
+    if (this.getWriteBehindQueue() != null && keys.length == values.length) {
+      this.getWriteBehindQueue().insert(tableName, keys, values);
+      return;
+    }
+
+    this.getAsyncExecutor()
         .execute(() -> MySQLConnectionProvider.this.insertInto(tableName, keys, values));
   }
 
+  @Override
+  public CompletableFuture<Void> insertIntoFuture(
+      String tableName, String[] keys, Object[] values) {
+    return this.executeUpdateFuture(this.buildInsert(tableName, keys), values);
+  }
+
+  @Override
+  public void insertBatch(String tableName, String[] keys, List<Object[]> rows) {
+    try {
+      this.executeBatch(this.buildInsert(tableName, keys), rows, false);
+    } catch (SQLException e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
+    }
+  }
+
+  @Override
+  public void insertBatchAsync(String tableName, String[] keys, List<Object[]> rows) {
+    this.getAsyncExecutor()
+        .execute(() -> MySQLConnectionProvider.this.insertBatch(tableName, keys, rows));
+  }
+
+  @Override
+  public CompletableFuture<Void> insertBatchFuture(
+      String tableName, String[] keys, List<Object[]> rows) {
+    return this.supplyFuture(
+        () -> {
+          this.executeBatch(this.buildInsert(tableName, keys), rows, false);
+          return null;
+        });
+  }
+
   @Override
   public void deleteFrom(String tableName, String whereKey, Object whereValue) {
-    whereValue = whereValue instanceof String ? "'" + whereValue + "'" : whereValue;
-    String cqlString = "DELETE FROM " + tableName + " WHERE " + whereKey + " = " + whereValue + ";";
+    String query = this.buildDelete(tableName, whereKey);
 
     if (!this.isConnected()) {
-      System.out.println("Failed SQL Query '" + cqlString + "' MySQL not connected!");
+      System.out.println("Failed SQL Query '" + query + "' MySQL not connected!");
+      Metrics.reportError(new SQLException("MySQL is not connected!"));
       return;
     }
 
-    this.update(cqlString);
+    this.dropWriteBehind(tableName, whereKey, whereValue);
+    this.update(query, whereValue);
   }
 
   @Override
   public void deleteFromAsync(String tableName, String whereKey, Object whereValue) {
-    this.getExecutorService()
+    this.getAsyncExecutor()
         .execute(() -> MySQLConnectionProvider.this.deleteFrom(tableName, whereKey, whereValue));
   }
 
+  @Override
+  public CompletableFuture<Void> deleteFromFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.supplyFuture(
+        () -> {
+          this.dropWriteBehind(tableName, whereKey, whereValue);
+          this.withPreparedStatement(
+              this.buildDelete(tableName, whereKey),
+              new Object[] {whereValue},
+              PreparedStatement::executeUpdate);
+          return null;
+        });
+  }
+
   @Override
   public void createTableIfNotExist(String tableName, List<TableColumn> columns) {
     String query = "CREATE TABLE IF NOT EXISTS " + tableName;
@@ -379,32 +614,437 @@ public final class MySQLConnectionProvider implements MySQLConnection {
   }
 
   public void update(String query) {
+    this.withConnection(
+        query,
+        connection -> {
+          try (Statement statement = connection.getConnection().createStatement()) {
+            return statement.executeUpdate(query);
+          }
+        });
+  }
+
+  /**
+   * Execute a parameterized update, the PreparedStatement is cached on the Connection
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   */
+  public void update(String query, Object... parameters) {
     try {
-      Statement statement = this.connection.createStatement();
-      statement.executeUpdate(query);
-      statement.close();
+      this.withPreparedStatement(query, parameters, PreparedStatement::executeUpdate);
     } catch (SQLException e) {
       e.printStackTrace();
+      Metrics.reportError(e);
     }
   }
 
   public void updateAsync(String query) {
-    this.getExecutorService().execute(() -> MySQLConnectionProvider.this.update(query));
+    this.getAsyncExecutor().execute(() -> MySQLConnectionProvider.this.update(query));
   }
 
+  /**
+   * Execute a query, the result is detached from the pooled Connection so the Connection can be
+   * handed back right away
+   *
+   * @param query the query
+   * @return the detached ResultSet or null if the query failed
+   */
   public ResultSet query(String query) {
+    return this.withConnection(
+        query,
+        connection -> {
+          try (Statement statement = connection.getConnection().createStatement();
+              ResultSet resultSet = statement.executeQuery(query)) {
+            CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            rowSet.populate(resultSet);
+            return rowSet;
+          }
+        });
+  }
+
+  public void queryAsync(String query, Consumer<ResultSet> consumer) {
+    this.getAsyncExecutor()
+        .execute(() -> consumer.accept(MySQLConnectionProvider.this.query(query)));
+  }
+
+  /**
+   * Run a parameterized query on the executor
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   * @return future which is completed with all returned data or exceptionally if the query failed
+   */
+  private CompletableFuture<Map<Integer, Map<String, Object>>> getDataFuture(
+      String query, Object... parameters) {
+    return this.supplyFuture(() -> this.readPrepared(query, parameters).asMap());
+  }
+
+  /**
+   * Run a parameterized update on the executor
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   * @return future which is completed when the update is done or exceptionally if it failed
+   */
+  private CompletableFuture<Void> executeUpdateFuture(String query, Object... parameters) {
+    return this.supplyFuture(
+        () -> {
+          this.withPreparedStatement(query, parameters, PreparedStatement::executeUpdate);
+          return null;
+        });
+  }
+
+  /**
+   * Run a parameterized statement for every row with JDBC batching on one Connection. The driver
+   * rewrites each chunk of batchSize rows into a single multi-row statement
+   *
+   * @param query the query with ? placeholders
+   * @param rows the values for the placeholders of each row
+   * @param singleTransaction true to commit all rows at once, so a failure writes none of them.
+   *     Otherwise every chunk is committed on its own
+   * @throws SQLException if a chunk failed, already committed chunks stay in the table
+   */
+  private void executeBatch(String query, List<Object[]> rows, boolean singleTransaction)
+      throws SQLException {
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    this.withConnectionChecked(
+        query,
+        connection -> {
+          Connection jdbcConnection = connection.getConnection();
+          PreparedStatement statement = connection.prepareStatement(query);
+          boolean autoCommit = jdbcConnection.getAutoCommit();
+
+          try {
+            jdbcConnection.setAutoCommit(false);
+
+            int pending = 0;
+            for (Object[] row : rows) {
+              for (int i = 0; i < row.length; i++) {
+                this.bindParameter(statement, i + 1, row[i]);
+              }
+
+              statement.addBatch();
+              if (++pending >= this.getBatchSize()) {
+                statement.executeBatch();
+                if (!singleTransaction) {
+                  jdbcConnection.commit();
+                }
+
+                pending = 0;
+              }
+            }
+
+            if (pending > 0) {
+              statement.executeBatch();
+            }
+
+            jdbcConnection.commit();
+          } catch (SQLException e) {
+            jdbcConnection.rollback();
+            connection.evictStatement(query);
+            throw e;
+          } finally {
+            jdbcConnection.setAutoCommit(autoCommit);
+          }
+
+          return rows.size();
+        });
+  }
+
+  /** Write the queued async writes of a row before a write of the row which has to follow them */
+  private void flushWriteBehind(String tableName, String whereKey, Object whereValue) {
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().flushRow(tableName, whereKey, whereValue);
+    }
+  }
+
+  /** Drop the queued async writes of a row before it is deleted */
+  private void dropWriteBehind(String tableName, String whereKey, Object whereValue) {
+    if (this.getWriteBehindQueue() != null) {
+      this.getWriteBehindQueue().dropRow(tableName, whereKey, whereValue);
+    }
+  }
+
+  private <T> CompletableFuture<T> supplyFuture(SQLSupplier<T> supplier) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      this.submit(
+          () -> {
+            try {
+              future.complete(supplier.get());
+            } catch (Throwable throwable) {
+              future.completeExceptionally(throwable);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+
+    return future;
+  }
+
+  /** Run a task on the executor, it keeps the call site of its caller for the slow operation log */
+  private void submit(Runnable task) {
+    this.getExecutorService().execute(this.getSlowOperationRecorder().wrap(task));
+  }
+
+  private ResultTable readPrepared(String query, Object[] parameters) throws SQLException {
+    return this.withPreparedStatement(
+        query,
+        parameters,
+        statement -> {
+          try (ResultSet resultSet = statement.executeQuery()) {
+            return this.readResultTable(resultSet);
+          }
+        });
+  }
+
+  /**
+   * Borrow a Connection from the Pool, run the callback and hand the Connection back
+   *
+   * @param query the query which is run by the callback
+   * @param callback the action which should be done with the Connection
+   * @return the result of the callback or null if the action failed
+   */
+  private <T> T withConnection(String query, ConnectionCallback<T> callback) {
     try {
-      Statement statement = this.connection.createStatement();
-      return statement.executeQuery(query);
+      return this.withConnectionChecked(query, callback);
     } catch (SQLException e) {
       e.printStackTrace();
+      Metrics.reportError(e);
     }
 
     return null;
   }
 
-  public void queryAsync(String query, Consumer<ResultSet> consumer) {
-    this.getExecutorService()
-        .execute(() -> consumer.accept(MySQLConnectionProvider.this.query(query)));
+  /**
+   * Borrow a Connection from the Pool, run the callback and hand the Connection back
+   *
+   * @param query the query which is run by the callback, recorded if it is slow
+   * @param callback the action which should be done with the Connection
+   * @return the result of the callback
+   * @throws SQLException if MySQL is not connected, no Connection could be borrowed or the
+   *     callback failed
+   */
+  private <T> T withConnectionChecked(String query, ConnectionCallback<T> callback)
+      throws SQLException {
+    if (!this.isConnected()) {
+      throw new SQLException("MySQL is not connected!");
+    }
+
+    // the time waiting for a Connection counts as well, the caller has to wait for it too
+    long startNanos = System.nanoTime();
+    T result = null;
+    SQLException error = null;
+    try {
+      MySQLPooledConnection pooledConnection = this.getConnectionPool().borrow();
+      try {
+        result = callback.execute(pooledConnection);
+        return result;
+      } finally {
+        this.getConnectionPool().release(pooledConnection);
+      }
+    } catch (SQLException e) {
+      error = e;
+      throw e;
+    } finally {
+      if (this.getSlowOperationRecorder().isEnabled()) {
+        this.getSlowOperationRecorder()
+            .record(
+                this.getOperation(query), query, this.getRowCount(result), startNanos, null, error);
+      }
+    }
+  }
+
+  /**
+   * Borrow a Connection, bind the parameters to the cached PreparedStatement of the query and run
+   * the callback with it
+   *
+   * @param query the query with ? placeholders
+   * @param parameters the values for the placeholders
+   * @param callback the action which should be done with the bound PreparedStatement
+   * @return the result of the callback
+   * @throws SQLException if the statement could not be prepared or the callback failed
+   */
+  private <T> T withPreparedStatement(
+      String query, Object[] parameters, StatementCallback<T> callback) throws SQLException {
+    return this.withConnectionChecked(
+        query,
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(query);
+
+          try {
+            for (int i = 0; i < parameters.length; i++) {
+              this.bindParameter(statement, i + 1, parameters[i]);
+            }
+
+            return callback.execute(statement);
+          } catch (SQLException e) {
+            // The statement may be broken together with its Connection, prepare it again next time
+            connection.evictStatement(query);
+            throw e;
+          }
+        });
+  }
+
+  private String getOperation(String query) {
+    String trimmedQuery = query.trim();
+    int end = trimmedQuery.indexOf(' ');
+    return (end == -1 ? trimmedQuery : trimmedQuery.substring(0, end)).toUpperCase();
+  }
+
+  private long getRowCount(Object result) {
+    if (result instanceof Integer) {
+      return (Integer) result;
+    }
+
+    if (result instanceof ResultTable) {
+      return ((ResultTable) result).getRowCount();
+    }
+
+    if (result instanceof CachedRowSet) {
+      return ((CachedRowSet) result).size();
+    }
+
+    return -1;
+  }
+
+  private String buildSelect(String tableName, String[] keys, String whereKey) {
+    StringBuilder queryBuilder =
+        new StringBuilder("SELECT ")
+            .append(keys == null ? "*" : String.join(", ", keys))
+            .append(" FROM ")
+            .append(tableName);
+
+    if (whereKey != null) {
+      queryBuilder.append(" WHERE ").append(whereKey).append(" = ?");
+    }
+
+    return queryBuilder.toString();
+  }
+
+  private String buildUpdate(String tableName, String[] keys, String whereKey) {
+    StringBuilder queryBuilder = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+    for (int i = 0; i < keys.length; i++) {
+      if (i > 0) {
+        queryBuilder.append(", ");
+      }
+
+      queryBuilder.append(keys[i]).append(" = ?");
+    }
+
+    return queryBuilder.append(" WHERE ").append(whereKey).append(" = ?").toString();
+  }
+
+  private String buildInsert(String tableName, String[] keys) {
+    StringBuilder queryBuilder =
+        new StringBuilder("INSERT INTO ")
+            .append(tableName)
+            .append("(")
+            .append(String.join(", ", keys))
+            .append(") VALUES(");
+    for (int i = 0; i < keys.length; i++) {
+      queryBuilder.append(i > 0 ? ", ?" : "?");
+    }
+
+    return queryBuilder.append(")").toString();
+  }
+
+  private String buildDelete(String tableName, String whereKey) {
+    return "DELETE FROM " + tableName + " WHERE " + whereKey + " = ?";
+  }
+
+  private Object[] append(Object[] values, Object value) {
+    Object[] result = new Object[values.length + 1];
+    System.arraycopy(values, 0, result, 0, values.length);
+    result[values.length] = value;
+    return result;
+  }
+
+  private void bindParameter(PreparedStatement statement, int index, Object value)
+      throws SQLException {
+    if (value instanceof UUID) {
+      statement.setString(index, value.toString());
+      return;
+    }
+
+    statement.setObject(index, value);
+  }
+
+  private ResultTable readResultTable(ResultSet resultSet) throws SQLException {
+    ResultSetMetaData md = resultSet.getMetaData();
+    int columns = md.getColumnCount();
+
+    String[] columnNames = new String[columns];
+    TableColumnType[] columnTypes = new TableColumnType[columns];
+    for (int j = 0; j < columns; j++) {
+      columnNames[j] = md.getColumnName(j + 1);
+      columnTypes[j] = this.getColumnType(md.getColumnClassName(j + 1));
+    }
+
+    ResultTable resultTable = new ResultTable(columnNames, columnTypes);
+
+    while (resultSet.next()) {
+      int row = resultTable.addRow();
+      for (int j = 0; j < columns; j++) {
+        TableColumnType columnType = columnTypes[j];
+        if (columnType == TableColumnType.INTEGER) {
+          resultTable.setInt(row, j, resultSet.getInt(j + 1));
+        } else if (columnType == TableColumnType.BIGINT) {
+          resultTable.setLong(row, j, resultSet.getLong(j + 1));
+        } else if (columnType == TableColumnType.BOOLEAN) {
+          resultTable.setBoolean(row, j, resultSet.getBoolean(j + 1));
+        } else {
+          resultTable.setObject(row, j, resultSet.getObject(j + 1));
+          continue;
+        }
+
+        if (resultSet.wasNull()) {
+          resultTable.setNull(row, j);
+        }
+      }
+    }
+
+    return resultTable;
+  }
+
+  /**
+   * Get the type in which a column can be stored unboxed, based on the class getObject returns
+   *
+   * @param columnClassName the class name from the ResultSetMetaData
+   * @return the type or null if the values have to be stored as Object
+   */
+  private TableColumnType getColumnType(String columnClassName) {
+    if (Integer.class.getName().equals(columnClassName)) {
+      return TableColumnType.INTEGER;
+    }
+
+    if (Long.class.getName().equals(columnClassName)) {
+      return TableColumnType.BIGINT;
+    }
+
+    if (Boolean.class.getName().equals(columnClassName)) {
+      return TableColumnType.BOOLEAN;
+    }
+
+    return null;
+  }
+
+  @FunctionalInterface
+  private interface ConnectionCallback<T> {
+    T execute(MySQLPooledConnection connection) throws SQLException;
+  }
+
+  @FunctionalInterface
+  private interface StatementCallback<T> {
+    T execute(PreparedStatement statement) throws SQLException;
+  }
+
+  @FunctionalInterface
+  private interface SQLSupplier<T> {
+    T get() throws SQLException;
   }
 }
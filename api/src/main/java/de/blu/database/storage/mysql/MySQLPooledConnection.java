@@ -0,0 +1,105 @@
+package de.blu.database.storage.mysql;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+public final class MySQLPooledConnection {
+
+  private final Connection connection;
+  private final int statementCacheSize;
+  private final Map<String, PreparedStatement> statementCache;
+  @Setter private long lastUsed = System.currentTimeMillis();
+
+  public MySQLPooledConnection(Connection connection, int statementCacheSize) {
+    this.connection = connection;
+    this.statementCacheSize = Math.max(1, statementCacheSize);
+
+    // Access ordered, so the least recently used statement is closed when the cache is full
+    this.statementCache =
+        new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (this.size() <= MySQLPooledConnection.this.getStatementCacheSize()) {
+              return false;
+            }
+
+            MySQLPooledConnection.this.closeStatement(eldest.getValue());
+            return true;
+          }
+        };
+  }
+
+  /**
+   * Get the cached PreparedStatement of the query or prepare it. A pooled Connection is only used
+   * by one thread at a time, so the statement can be bound without further locking
+   *
+   * @param query the query with ? placeholders
+   * @return the PreparedStatement of the query
+   * @throws SQLException if the query could not be prepared
+   */
+  public PreparedStatement prepareStatement(String query) throws SQLException {
+    PreparedStatement statement = this.getStatementCache().get(query);
+    if (statement != null && !statement.isClosed()) {
+      return statement;
+    }
+
+    statement = this.getConnection().prepareStatement(query);
+    this.getStatementCache().put(query, statement);
+
+    return statement;
+  }
+
+  /**
+   * Remove the PreparedStatement of a query from the cache and close it
+   *
+   * @param query the query of the statement
+   */
+  public void evictStatement(String query) {
+    PreparedStatement statement = this.getStatementCache().remove(query);
+    if (statement != null) {
+      this.closeStatement(statement);
+    }
+  }
+
+  /**
+   * Check if the underlying Connection can still be handed out
+   *
+   * @return true if the Connection is open or false if not
+   */
+  public boolean isOpen() {
+    try {
+      return !this.getConnection().isClosed();
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  /** Close all cached statements and the underlying Connection */
+  public void close() {
+    for (PreparedStatement statement : this.getStatementCache().values()) {
+      this.closeStatement(statement);
+    }
+    this.getStatementCache().clear();
+
+    try {
+      this.getConnection().close();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void closeStatement(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package de.blu.database.storage.mysql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Reads the rows of an open ResultSet one by one. The statement, the ResultSet and the borrowed
+ * Connection are released as soon as the last row was read or the owning Stream is closed
+ */
+public final class MySQLRowSpliterator extends Spliterators.AbstractSpliterator<Map<String, Object>>
+    implements AutoCloseable {
+
+  private final MySQLConnectionPool connectionPool;
+  private final MySQLPooledConnection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final String[] columnNames;
+
+  private boolean closed;
+
+  public MySQLRowSpliterator(
+      MySQLConnectionPool connectionPool,
+      MySQLPooledConnection connection,
+      PreparedStatement statement,
+      ResultSet resultSet)
+      throws SQLException {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.connectionPool = connectionPool;
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+
+    ResultSetMetaData md = resultSet.getMetaData();
+    this.columnNames = new String[md.getColumnCount()];
+    for (int i = 0; i < this.columnNames.length; i++) {
+      this.columnNames[i] = md.getColumnName(i + 1);
+    }
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+    if (this.closed) {
+      return false;
+    }
+
+    try {
+      if (!this.resultSet.next()) {
+        this.close();
+        return false;
+      }
+
+      Map<String, Object> row = new HashMap<>();
+      for (int i = 0; i < this.columnNames.length; i++) {
+        row.put(this.columnNames[i], this.resultSet.getObject(i + 1));
+      }
+
+      action.accept(row);
+      return true;
+    } catch (SQLException e) {
+      this.close();
+      throw new IllegalStateException("Failed to read the next row", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+
+    try {
+      this.resultSet.close();
+      this.statement.close();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+
+    this.connectionPool.release(this.connection);
+  }
+}
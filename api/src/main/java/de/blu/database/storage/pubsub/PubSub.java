@@ -2,6 +2,8 @@ package de.blu.database.storage.pubsub;
 
 import de.blu.database.storage.pubsub.listener.PubSubListener;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PubSub {
 
   /**
@@ -13,6 +15,32 @@ public interface PubSub {
    */
   void subscribe(PubSubListener listener, String... channels);
 
+  /**
+   * Subscribe to all channels matching glob patterns
+   *
+   * @param listener the listener for actions when there will be a message published in any channel
+   *     matching one of the patterns
+   * @param patterns the patterns, for example "chat.*"
+   */
+  void psubscribe(PubSubListener listener, String... patterns);
+
+  /**
+   * Unsubscribe a listener from channels, a channel is unsubscribed from Redis when it has no
+   * listener anymore
+   *
+   * @param listener the listener which was subscribed
+   * @param channels the channels which should be unsubscribed
+   */
+  void unsubscribe(PubSubListener listener, String... channels);
+
+  /**
+   * Unsubscribe a listener from patterns
+   *
+   * @param listener the listener which was subscribed
+   * @param patterns the patterns which should be unsubscribed
+   */
+  void punsubscribe(PubSubListener listener, String... patterns);
+
   /**
    * Publish a Message in Redis Pub/Sub Channel
    *
@@ -21,6 +49,25 @@ public interface PubSub {
    */
   void publish(String channel, String message);
 
+  /**
+   * Publish a Message in Redis Pub/Sub Channel Async
+   *
+   * @param channel the channel
+   * @param message the message
+   * @return future which is completed with the amount of subscribers which received the message
+   */
+  CompletableFuture<Long> publishFuture(String channel, String message);
+
+  /**
+   * Queue a Message which is published together with the other queued Messages of the channel
+   * after a short window. Subscribers receive every Message on its own in the order they were
+   * queued
+   *
+   * @param channel the channel
+   * @param message the message
+   */
+  void publishBatched(String channel, String message);
+
   /**
    * Check if a Channel was subscribed by any Application
    *
@@ -2,8 +2,17 @@ package de.blu.database.storage.redis;
 
 import de.blu.database.config.redis.RedisConfig;
 import de.blu.database.storage.KeyValueStorage;
+import de.blu.database.storage.ReactiveKeyValueStorage;
 import de.blu.database.storage.pubsub.PubSub;
+import de.blu.database.storage.stream.StreamStorage;
 
-public interface RedisConnection extends KeyValueStorage, PubSub {
+public interface RedisConnection extends KeyValueStorage, PubSub, StreamStorage {
   void init(RedisConfig redisConfig);
+
+  /**
+   * Get the reactive commands which share the connection of this storage
+   *
+   * @return the reactive KeyValueStorage
+   */
+  ReactiveKeyValueStorage reactive();
 }
@@ -1,21 +1,33 @@
 package de.blu.database.storage.redis;
 
 import de.blu.database.config.redis.RedisConfig;
+import de.blu.database.metrics.Metrics;
+import de.blu.database.metrics.SlowOperationRecorder;
+import de.blu.database.storage.ReactiveKeyValueStorage;
 import de.blu.database.storage.pubsub.listener.PubSubListener;
+import de.blu.database.storage.stream.listener.StreamListener;
+import de.blu.database.util.BoundedExecutor;
 import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanIterator;
+import io.lettuce.core.XAddArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
-import io.lettuce.core.pubsub.RedisPubSubListener;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import lombok.Getter;
 
 import javax.inject.Singleton;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Singleton
 @Getter
@@ -25,47 +37,118 @@ public final class RedisConnectionProvider implements RedisConnection {
 
   public RedisClient client;
   public StatefulRedisConnection<String, String> connectionCache;
+  public StatefulRedisConnection<String, String> connectionPipeline;
   public StatefulRedisPubSubConnection<String, String> connectionPubsubListener;
   public StatefulRedisPubSubConnection<String, String> connectionPubsubPublish;
   public RedisCommands<String, String> redisCommandsCache;
+  public RedisAsyncCommands<String, String> redisAsyncCommandsCache;
   public RedisCommands<String, String> redisCommandsPubsubListener;
   public RedisCommands<String, String> redisCommandsPubsubPublish;
 
-  private ExecutorService executorService = Executors.newCachedThreadPool();
+  private BoundedExecutor pubSubCallbackExecutor;
+  private int executorShutdownTimeoutMillis;
+  private SlowOperationRecorder slowOperationRecorder;
+  private RedisPubSubDispatcher pubSubDispatcher;
+  private volatile RedisPubSubBatcher pubSubBatcher;
+  private final Object pubSubBatcherLock = new Object();
+  private BoundedExecutor streamWorkerExecutor;
+  private final Map<String, RedisStreamConsumer> streamConsumers = new ConcurrentHashMap<>();
+
+  private final ReactiveKeyValueStorage reactiveStorage = new RedisReactiveKeyValueStorage(this);
+
+  private int scanCount;
+  private int batchSize;
+  private boolean publishCheckChannelExists;
+  private long channelExistsCacheMillis;
+  private long streamMaxLength;
+  private int streamReadBatchSize;
+  private int streamReadBlockMillis;
+  private int streamClaimIdleMillis;
+  private int streamMaxDeliveries;
+  private RedisConfig redisConfig;
+
+  // channel -> time in millis until a PUBSUB CHANNELS result is trusted, negative if no subscriber
+  private final Map<String, Long> channelExistsCache = new ConcurrentHashMap<>();
 
   @Override
   public void init(RedisConfig redisConfig) {
-    RedisURI.Builder builder =
-        RedisURI.builder().withHost(redisConfig.getHost()).withPort(redisConfig.getPort());
-
-    if (!redisConfig.getPassword().isEmpty()) {
-      builder.withPassword(redisConfig.getPassword());
-    }
-
-    this.client = RedisClient.create(builder.build());
-
-    this.client.setOptions(
-        ClientOptions.builder()
-            .autoReconnect(true)
-            .disconnectedBehavior(ClientOptions.DisconnectedBehavior.ACCEPT_COMMANDS)
-            .cancelCommandsOnReconnectFailure(false)
-            .build());
+    this.redisConfig = redisConfig;
+    this.scanCount = Math.max(1, redisConfig.getScanCount());
+    this.batchSize = Math.max(1, redisConfig.getBatchSize());
+    this.publishCheckChannelExists = redisConfig.isPublishCheckChannelExists();
+    this.channelExistsCacheMillis = Math.max(0, redisConfig.getChannelExistsCacheMillis());
+    this.executorShutdownTimeoutMillis = redisConfig.getExecutorShutdownTimeoutMillis();
+
+    this.streamMaxLength = redisConfig.getStreamMaxLength();
+    this.streamReadBatchSize = redisConfig.getStreamReadBatchSize();
+    this.streamReadBlockMillis = redisConfig.getStreamReadBlockMillis();
+    this.streamClaimIdleMillis = redisConfig.getStreamClaimIdleMillis();
+    this.streamMaxDeliveries = redisConfig.getStreamMaxDeliveries();
   }
 
   @Override
   public void connect() {
+    // disconnect shuts the client, the executors and the slow log down, so they are created on
+    // every connect
+    RedisConfig redisConfig = this.getRedisConfig();
+    this.client = this.createClient();
+
+    this.slowOperationRecorder =
+        new SlowOperationRecorder(
+            "redis",
+            redisConfig.getSlowLogThresholdMillis(),
+            redisConfig.getSlowLogBufferSize(),
+            redisConfig.getSlowLogFile());
+
+    // with one thread the messages are received in the order they were published. The messages
+    // are handed over on the netty event loop, so a full queue drops them instead of running the
+    // listeners there, which would block every connection of the client and break the order
+    this.pubSubCallbackExecutor =
+        new BoundedExecutor(
+            "redis-pubsub",
+            redisConfig.getPubSubCallbackThreads(),
+            redisConfig.getExecutorQueueSize(),
+            BoundedExecutor.RejectionPolicy.ABORT);
+    this.pubSubDispatcher = new RedisPubSubDispatcher(this.pubSubCallbackExecutor);
+
+    this.streamWorkerExecutor =
+        new BoundedExecutor(
+            "redis-stream-worker",
+            redisConfig.getStreamWorkerThreads(),
+            redisConfig.getExecutorQueueSize(),
+            BoundedExecutor.RejectionPolicy.of(
+                redisConfig.getExecutorRejectionPolicy(), BoundedExecutor.RejectionPolicy.ABORT));
+
     try {
       this.connectionCache = this.getClient().connect();
-      this.redisCommandsCache = this.getConnectionCache().sync();
+      this.redisCommandsCache =
+          RedisSlowLogHandler.wrap(
+              RedisCommands.class,
+              this.getConnectionCache().sync(),
+              this.getSlowOperationRecorder());
+      this.redisAsyncCommandsCache =
+          RedisSlowLogHandler.wrap(
+              RedisAsyncCommands.class,
+              this.getConnectionCache().async(),
+              this.getSlowOperationRecorder());
+      this.connectionPipeline = this.getClient().connect();
+      this.connectionPipeline.setAutoFlushCommands(false);
       this.connectionPubsubListener = this.getClient().connectPubSub();
       this.connectionPubsubPublish = this.getClient().connectPubSub();
       this.redisCommandsPubsubListener = this.getConnectionPubsubListener().sync();
-      this.redisCommandsPubsubPublish = this.getConnectionPubsubPublish().sync();
+      this.getConnectionPubsubListener().addListener(this.getPubSubDispatcher());
+      this.redisCommandsPubsubPublish =
+          RedisSlowLogHandler.wrap(
+              RedisCommands.class,
+              this.getConnectionPubsubPublish().sync(),
+              this.getSlowOperationRecorder());
     } catch (Exception e) {
       e.printStackTrace();
       this.client = null;
       this.connectionCache = null;
       this.redisCommandsCache = null;
+      this.redisAsyncCommandsCache = null;
+      this.connectionPipeline = null;
       this.connectionPubsubListener = null;
       this.connectionPubsubPublish = null;
       this.redisCommandsPubsubListener = null;
@@ -75,23 +158,50 @@ public final class RedisConnectionProvider implements RedisConnection {
 
   @Override
   public void disconnect() {
+    // connect was never called, there is nothing to shut down
+    if (this.getPubSubCallbackExecutor() == null) {
+      return;
+    }
+
+    synchronized (this.pubSubBatcherLock) {
+      if (this.getPubSubBatcher() != null) {
+        this.getPubSubBatcher().close();
+        this.pubSubBatcher = null;
+      }
+    }
+
+    this.getStreamConsumers().values().forEach(RedisStreamConsumer::stop);
+    this.getStreamConsumers().clear();
+
     if (this.getConnectionCache() != null) {
       this.getConnectionCache().close();
     }
 
+    if (this.getConnectionPipeline() != null) {
+      this.getConnectionPipeline().close();
+    }
+
     if (this.getClient() != null) {
       this.getClient().shutdown();
     }
 
     this.connectionCache = null;
+    this.connectionPipeline = null;
     this.client = null;
 
     this.connectionPubsubListener = null;
     this.connectionPubsubPublish = null;
 
     this.redisCommandsCache = null;
+    this.redisAsyncCommandsCache = null;
     this.redisCommandsPubsubListener = null;
     this.redisCommandsPubsubPublish = null;
+
+    this.channelExistsCache.clear();
+    this.getPubSubDispatcher().clear();
+    this.getPubSubCallbackExecutor().shutdownGracefully(this.getExecutorShutdownTimeoutMillis());
+    this.getStreamWorkerExecutor().shutdownGracefully(this.getExecutorShutdownTimeoutMillis());
+    this.getSlowOperationRecorder().close();
   }
 
   @Override
@@ -99,6 +209,32 @@ public final class RedisConnectionProvider implements RedisConnection {
     return this.getClient() != null;
   }
 
+  private RedisClient createClient() {
+    RedisURI.Builder builder =
+        RedisURI.builder()
+            .withHost(this.getRedisConfig().getHost())
+            .withPort(this.getRedisConfig().getPort())
+            .withDatabase(this.getRedisConfig().getDatabase());
+
+    if (!this.getRedisConfig().getPassword().isEmpty()) {
+      builder.withPassword(this.getRedisConfig().getPassword());
+    }
+
+    RedisClient client = RedisClient.create(builder.build());
+    client.setOptions(
+        ClientOptions.builder()
+            .autoReconnect(true)
+            .disconnectedBehavior(ClientOptions.DisconnectedBehavior.ACCEPT_COMMANDS)
+            .cancelCommandsOnReconnectFailure(false)
+            .build());
+    return client;
+  }
+
+  @Override
+  public ReactiveKeyValueStorage reactive() {
+    return this.reactiveStorage;
+  }
+
   @Override
   public void set(String key, String value) {
     this.set(key, value, REDIS_EXPIRE_DEFAULT);
@@ -107,24 +243,108 @@ public final class RedisConnectionProvider implements RedisConnection {
   @Override
   public void set(String key, String value, int expireSeconds) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
+      return;
+    }
+
+    // SETEX rejects an expire time of 0 or less, SET with EXPIRE removed the key in that case
+    if (expireSeconds <= 0) {
+      this.getRedisCommandsCache().del(key);
       return;
     }
 
-    this.getRedisCommandsCache().set(key, value);
-    this.getRedisCommandsCache().expire(key, expireSeconds);
+    this.getRedisCommandsCache().setex(key, expireSeconds, value);
+  }
+
+  @Override
+  public void setMany(Map<String, String> values) {
+    this.setMany(values, REDIS_EXPIRE_DEFAULT);
+  }
+
+  @Override
+  public synchronized void setMany(Map<String, String> values, int expireSeconds) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
+
+    // the pipeline connection does not flush on its own, every batch goes out in one write
+    RedisAsyncCommands<String, String> commands = this.getConnectionPipeline().async();
+    List<RedisFuture<?>> futures = new ArrayList<>(values.size());
+
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      if (expireSeconds <= 0) {
+        futures.add(commands.del(entry.getKey()));
+      } else {
+        futures.add(commands.setex(entry.getKey(), expireSeconds, entry.getValue()));
+      }
+
+      if (futures.size() % this.batchSize == 0) {
+        this.getConnectionPipeline().flushCommands();
+      }
+    }
+
+    this.getConnectionPipeline().flushCommands();
+
+    try {
+      if (!LettuceFutures.awaitAll(
+          this.getConnectionPipeline().getTimeout(), futures.toArray(new RedisFuture<?>[0]))) {
+        Exception exception = new Exception("Redis setMany timed out!");
+        exception.printStackTrace();
+        Metrics.reportError(exception);
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value) {
+    return this.setFuture(key, value, REDIS_EXPIRE_DEFAULT);
+  }
+
+  @Override
+  public CompletableFuture<Void> setFuture(String key, String value, int expireSeconds) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    if (expireSeconds <= 0) {
+      return this.getRedisAsyncCommandsCache()
+          .del(key)
+          .<Void>thenApply(result -> null)
+          .toCompletableFuture();
+    }
+
+    return this.getRedisAsyncCommandsCache()
+        .setex(key, expireSeconds, value)
+        .<Void>thenApply(result -> null)
+        .toCompletableFuture();
   }
 
   @Override
   public void remove(String key) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return;
     }
 
     this.getRedisCommandsCache().del(key);
   }
 
+  @Override
+  public CompletableFuture<Void> removeFuture(String key) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    return this.getRedisAsyncCommandsCache()
+        .del(key)
+        .<Void>thenApply(result -> null)
+        .toCompletableFuture();
+  }
+
   @Override
   public Collection<String> getKeys(String key) {
     return this.getKeys(key, false);
@@ -134,18 +354,19 @@ public final class RedisConnectionProvider implements RedisConnection {
   public Collection<String> getKeys(String key, boolean recursive) {
     Collection<String> keys = new HashSet<>();
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return keys;
     }
 
-    List<String> cachedKeys;
+    Iterator<String> cachedKeys;
     if (key.equalsIgnoreCase("")) {
-      cachedKeys = this.getRedisCommandsCache().keys("*");
+      cachedKeys = this.scan("*");
     } else {
-      cachedKeys = this.getRedisCommandsCache().keys(key + ".*");
+      cachedKeys = this.scan(key + ".*");
     }
 
-    for (String cachedKey : cachedKeys) {
+    while (cachedKeys.hasNext()) {
+      String cachedKey = cachedKeys.next();
       if (recursive) {
         keys.add(cachedKey);
         continue;
@@ -160,10 +381,20 @@ public final class RedisConnectionProvider implements RedisConnection {
     return keys;
   }
 
+  @Override
+  public Stream<String> scanKeys(String pattern) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return Stream.empty();
+    }
+
+    return this.scan(pattern).stream();
+  }
+
   @Override
   public String get(String key) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return null;
     }
 
@@ -176,110 +407,442 @@ public final class RedisConnectionProvider implements RedisConnection {
     return "";
   }
 
+  @Override
+  public CompletableFuture<String> getFuture(String key) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    return this.getRedisAsyncCommandsCache().get(key).toCompletableFuture();
+  }
+
   @Override
   public Map<String, String> getAll() {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return null;
     }
 
-    List<String> keys = this.getRedisCommandsCache().keys("*");
-    Map<String, String> data = new LinkedHashMap<>();
+    return this.mget(this.scan("*"));
+  }
 
-    for (String key : keys) {
-      data.put(key, this.get(key));
+  @Override
+  public Map<String, String> getMany(Collection<String> keys) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return new LinkedHashMap<>();
     }
-    // keys.forEach(key -> data.put(key, this.get(key)));
 
-    return data;
+    return this.mget(keys.iterator());
+  }
+
+  @Override
+  public CompletableFuture<Map<String, String>> getManyFuture(Collection<String> keys) {
+    return this.reactive()
+        .getMany(keys)
+        .collect(
+            LinkedHashMap<String, String>::new,
+            (data, entry) -> data.put(entry.getKey(), entry.getValue()))
+        .<Map<String, String>>map(data -> data)
+        .toFuture();
   }
 
   @Override
   public boolean contains(String key) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return false;
     }
 
-    return this.getRedisCommandsCache().keys(key + "*").size() > 0;
+    return this.getRedisCommandsCache().exists(key) > 0;
+  }
+
+  @Override
+  public CompletableFuture<Boolean> containsFuture(String key) {
+    return this.reactive().contains(key).toFuture();
+  }
+
+  @Override
+  public boolean containsPrefix(String prefix) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return false;
+    }
+
+    return this.scan(prefix + "*").hasNext();
+  }
+
+  @Override
+  public CompletableFuture<Boolean> containsPrefixFuture(String prefix) {
+    return this.reactive().containsPrefix(prefix).toFuture();
   }
 
   @Override
   public int getRemainingTimeFromKey(String key) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return -1;
     }
 
-    if (!this.contains(key)) {
+    return toRemainingSeconds(this.getRedisCommandsCache().pttl(key));
+  }
+
+  @Override
+  public CompletableFuture<Integer> getRemainingTimeFromKeyFuture(String key) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    return this.getRedisAsyncCommandsCache()
+        .pttl(key)
+        .thenApply(RedisConnectionProvider::toRemainingSeconds)
+        .toCompletableFuture();
+  }
+
+  /**
+   * Convert the result of PTTL to seconds
+   *
+   * @param remainingMillis the result of PTTL, -2 if the key does not exist and -1 if it has no
+   *     expire
+   * @return the remaining seconds rounded up or -1 if the key does not exist or has no expire
+   */
+  static int toRemainingSeconds(long remainingMillis) {
+    if (remainingMillis < 0) {
       return -1;
     }
 
-    return Math.toIntExact(this.getRedisCommandsCache().ttl(key));
+    return Math.toIntExact((remainingMillis + 999) / 1000);
   }
 
   @Override
   public void subscribe(PubSubListener listener, String... channels) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return;
     }
 
-    Collection<String> channelList = Arrays.asList(channels);
-
-    this.getConnectionPubsubListener()
-        .addListener(
-            new RedisPubSubListener<String, String>() {
-              @Override
-              public void message(String channel, String message) {
-                if (!channelList.contains(channel)) {
-                  return;
-                }
-
-                listener.onMessageReceived(channel, message);
-              }
+    synchronized (this.getPubSubDispatcher()) {
+      Collection<String> newChannels =
+          this.getPubSubDispatcher().addChannelListener(listener, channels);
+      if (!newChannels.isEmpty()) {
+        this.getConnectionPubsubListener()
+            .sync()
+            .subscribe(newChannels.toArray(new String[0]));
+      }
+    }
+  }
 
-              @Override
-              public void message(String pattern, String channel, String message) {}
+  @Override
+  public void psubscribe(PubSubListener listener, String... patterns) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
 
-              @Override
-              public void subscribed(String channel, long count) {}
+    synchronized (this.getPubSubDispatcher()) {
+      Collection<String> newPatterns =
+          this.getPubSubDispatcher().addPatternListener(listener, patterns);
+      if (!newPatterns.isEmpty()) {
+        this.getConnectionPubsubListener()
+            .sync()
+            .psubscribe(newPatterns.toArray(new String[0]));
+      }
+    }
+  }
 
-              @Override
-              public void psubscribed(String pattern, long count) {}
+  @Override
+  public void unsubscribe(PubSubListener listener, String... channels) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
 
-              @Override
-              public void unsubscribed(String channel, long count) {}
+    synchronized (this.getPubSubDispatcher()) {
+      Collection<String> unusedChannels =
+          this.getPubSubDispatcher().removeChannelListener(listener, channels);
+      if (!unusedChannels.isEmpty()) {
+        this.getConnectionPubsubListener()
+            .sync()
+            .unsubscribe(unusedChannels.toArray(new String[0]));
+      }
+    }
+  }
 
-              @Override
-              public void punsubscribed(String pattern, long count) {}
-            });
+  @Override
+  public void punsubscribe(PubSubListener listener, String... patterns) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
 
-    this.getConnectionPubsubListener().sync().subscribe(channels);
+    synchronized (this.getPubSubDispatcher()) {
+      Collection<String> unusedPatterns =
+          this.getPubSubDispatcher().removePatternListener(listener, patterns);
+      if (!unusedPatterns.isEmpty()) {
+        this.getConnectionPubsubListener()
+            .sync()
+            .punsubscribe(unusedPatterns.toArray(new String[0]));
+      }
+    }
   }
 
   @Override
   public void publish(String channel, String message) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
+      return;
+    }
+
+    if (this.isPublishCheckChannelExists() && !this.isChannelSubscribed(channel)) {
       return;
     }
 
-    if (!this.channelExists(channel)) {
-      // new Exception("Redis PubSub Channel " + channel + " doesnt exist!").printStackTrace();
+    long receivers = this.getRedisCommandsPubsubPublish().publish(channel, message);
+    this.cacheChannelExists(channel, receivers > 0);
+  }
+
+  @Override
+  public CompletableFuture<Long> publishFuture(String channel, String message) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    return this.getConnectionPubsubPublish()
+        .async()
+        .publish(channel, message)
+        .thenApply(
+            receivers -> {
+              this.cacheChannelExists(channel, receivers > 0);
+              return receivers;
+            })
+        .toCompletableFuture();
+  }
+
+  @Override
+  public void publishBatched(String channel, String message) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
       return;
     }
 
-    this.getRedisCommandsPubsubPublish().publish(channel, message);
+    this.startPubSubBatcher().add(channel, message);
   }
 
   @Override
   public boolean channelExists(String channel) {
     if (!this.isConnected()) {
-      new Exception("Redis is not connected!").printStackTrace();
+      this.reportNotConnected();
       return false;
     }
 
-    return this.getRedisCommandsPubsubPublish().pubsubChannels(channel).contains(channel);
+    boolean exists =
+        this.getRedisCommandsPubsubPublish().pubsubChannels(channel).contains(channel);
+    this.cacheChannelExists(channel, exists);
+    return exists;
+  }
+
+  @Override
+  public String add(String stream, Map<String, String> message) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return null;
+    }
+
+    return this.getRedisCommandsCache().xadd(stream, this.createAddArgs(), message);
+  }
+
+  @Override
+  public CompletableFuture<String> addFuture(String stream, Map<String, String> message) {
+    if (!this.isConnected()) {
+      return this.notConnectedFuture();
+    }
+
+    return this.getRedisAsyncCommandsCache()
+        .xadd(stream, this.createAddArgs(), message)
+        .toCompletableFuture();
+  }
+
+  @Override
+  public void consume(String stream, String group, String consumer, StreamListener listener) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
+
+    RedisStreamConsumer streamConsumer =
+        new RedisStreamConsumer(
+            this.getClient().connect(),
+            stream,
+            group,
+            consumer,
+            listener,
+            this.getStreamWorkerExecutor(),
+            this.getStreamReadBatchSize(),
+            this.getStreamReadBlockMillis(),
+            this.getStreamClaimIdleMillis(),
+            this.getStreamMaxDeliveries());
+
+    // claimed before the start, so two concurrent calls for the same group never both start
+    String consumerKey = stream + ":" + group;
+    if (this.getStreamConsumers().putIfAbsent(consumerKey, streamConsumer) != null) {
+      streamConsumer.stop();
+      Exception exception =
+          new Exception("Stream " + stream + " is already consumed by " + group + "!");
+      exception.printStackTrace();
+      Metrics.reportError(exception);
+      return;
+    }
+
+    try {
+      streamConsumer.start();
+    } catch (Exception e) {
+      e.printStackTrace();
+      Metrics.reportError(e);
+      this.getStreamConsumers().remove(consumerKey, streamConsumer);
+      streamConsumer.stop();
+    }
+  }
+
+  @Override
+  public void stopConsuming(String stream, String group) {
+    RedisStreamConsumer streamConsumer = this.getStreamConsumers().remove(stream + ":" + group);
+    if (streamConsumer != null) {
+      streamConsumer.stop();
+    }
+  }
+
+  private XAddArgs createAddArgs() {
+    XAddArgs addArgs = new XAddArgs();
+    if (this.getStreamMaxLength() > 0) {
+      // trimming with ~ only removes whole nodes of the stream, that is a lot cheaper
+      addArgs.maxlen(this.getStreamMaxLength()).approximateTrimming();
+    }
+
+    return addArgs;
+  }
+
+  /**
+   * Check with the cached result of the last PUBSUB CHANNELS or PUBLISH if the channel has
+   * subscribers, the server is only asked again when the cached result is older than
+   * channelExistsCacheMillis
+   *
+   * @param channel the channel to check
+   * @return true if the channel had a subscriber
+   */
+  private boolean isChannelSubscribed(String channel) {
+    Long cached = this.channelExistsCache.get(channel);
+    if (cached != null && Math.abs(cached) > System.currentTimeMillis()) {
+      return cached > 0;
+    }
+
+    return this.channelExists(channel);
+  }
+
+  /** The batcher and its flush thread are only started once publishBatched is used */
+  private RedisPubSubBatcher startPubSubBatcher() {
+    RedisPubSubBatcher batcher = this.getPubSubBatcher();
+    if (batcher != null) {
+      return batcher;
+    }
+
+    synchronized (this.pubSubBatcherLock) {
+      if (this.getPubSubBatcher() == null) {
+        this.pubSubBatcher =
+            new RedisPubSubBatcher(
+                this::publishPayload,
+                this.getRedisConfig().getPublishBatchWindowMillis(),
+                this.getRedisConfig().getPublishBatchMaxMessages(),
+                this.getRedisConfig().getPublishCompressThreshold());
+      }
+
+      return this.getPubSubBatcher();
+    }
+  }
+
+  private void publishPayload(String channel, String payload) {
+    if (!this.isConnected()) {
+      this.reportNotConnected();
+      return;
+    }
+
+    // commands on one connection are sent in order, so the batches arrive in order too
+    this.getConnectionPubsubPublish()
+        .async()
+        .publish(channel, payload)
+        .whenComplete(
+            (receivers, throwable) -> {
+              if (throwable != null) {
+                throwable.printStackTrace();
+              }
+            });
+  }
+
+  private void cacheChannelExists(String channel, boolean exists) {
+    if (!this.isPublishCheckChannelExists()) {
+      return;
+    }
+
+    long validUntil = System.currentTimeMillis() + this.channelExistsCacheMillis;
+    this.channelExistsCache.put(channel, exists ? validUntil : -validUntil);
+  }
+
+  /**
+   * Walk the keyspace with SCAN, every call to the server only returns about scanCount keys so
+   * other clients are not blocked like with KEYS
+   *
+   * @param pattern the glob pattern the keys have to match
+   * @return lazy Iterator over all matching keys
+   */
+  private ScanIterator<String> scan(String pattern) {
+    return ScanIterator.scan(
+        this.getRedisCommandsCache(), ScanArgs.Builder.matches(pattern).limit(this.scanCount));
+  }
+
+  /**
+   * Read the values of the keys with one MGET per batchSize keys. All MGETs are sent without
+   * waiting for the previous answer, so the whole read only costs a few round trips
+   *
+   * @param keys the keys to read
+   * @return Map with all existing keys and their values in the order of the keys
+   */
+  private Map<String, String> mget(Iterator<String> keys) {
+    List<RedisFuture<List<KeyValue<String, String>>>> futures = new ArrayList<>();
+    List<String> chunk = new ArrayList<>(this.batchSize);
+
+    while (keys.hasNext()) {
+      chunk.add(keys.next());
+      if (chunk.size() == this.batchSize || !keys.hasNext()) {
+        futures.add(this.getRedisAsyncCommandsCache().mget(chunk.toArray(new String[0])));
+        chunk.clear();
+      }
+    }
+
+    Map<String, String> data = new LinkedHashMap<>();
+    for (RedisFuture<List<KeyValue<String, String>>> future : futures) {
+      try {
+        for (KeyValue<String, String> keyValue : future.get()) {
+          if (keyValue.hasValue()) {
+            data.put(keyValue.getKey(), keyValue.getValue());
+          }
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+        Metrics.reportError(e);
+      }
+    }
+
+    return data;
+  }
+
+  private void reportNotConnected() {
+    Exception exception = new Exception("Redis is not connected!");
+    exception.printStackTrace();
+    Metrics.reportError(exception);
+  }
+
+  private <T> CompletableFuture<T> notConnectedFuture() {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(new IllegalStateException("Redis is not connected!"));
+    return future;
   }
 }
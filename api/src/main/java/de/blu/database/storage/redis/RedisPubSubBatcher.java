@@ -0,0 +1,99 @@
+package de.blu.database.storage.redis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects messages per channel and publishes them as one {@link RedisPubSubFrame} when the window
+ * is over or a channel reached the max amount of messages
+ */
+public final class RedisPubSubBatcher {
+
+  private final BiConsumer<String, String> publisher;
+  private final int maxMessages;
+  private final int compressThreshold;
+  private final ScheduledExecutorService scheduler;
+
+  private Map<String, List<String>> pending = new HashMap<>();
+
+  /**
+   * Create a batcher and start its flush timer
+   *
+   * @param publisher publishes a payload in a channel
+   * @param windowMillis the max time a message waits before it is published
+   * @param maxMessages the amount of messages in a channel which are published at once
+   * @param compressThreshold the payload size in bytes from which it gets deflated
+   */
+  public RedisPubSubBatcher(
+      BiConsumer<String, String> publisher,
+      int windowMillis,
+      int maxMessages,
+      int compressThreshold) {
+    this.publisher = publisher;
+    this.maxMessages = Math.max(1, maxMessages);
+    this.compressThreshold = compressThreshold;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "database-redis-publish-batch");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    long window = Math.max(1, windowMillis);
+    this.scheduler.scheduleAtFixedRate(this::flush, window, window, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queue a message
+   *
+   * @param channel the channel
+   * @param message the message
+   */
+  public synchronized void add(String channel, String message) {
+    List<String> messages = this.pending.computeIfAbsent(channel, key -> new ArrayList<>());
+    messages.add(message);
+
+    if (messages.size() >= this.maxMessages) {
+      this.pending.remove(channel);
+      this.publish(channel, messages);
+    }
+  }
+
+  /** Publish all queued messages now */
+  public synchronized void flush() {
+    if (this.pending.isEmpty()) {
+      return;
+    }
+
+    Map<String, List<String>> messages = this.pending;
+    this.pending = new HashMap<>();
+    messages.forEach(this::publish);
+  }
+
+  /** Publish all queued messages and stop the flush timer */
+  public void close() {
+    this.scheduler.shutdown();
+    this.flush();
+  }
+
+  private void publish(String channel, List<String> messages) {
+    try {
+      // a single small message is sent as it is, the receiver does not have to unpack it
+      if (messages.size() == 1 && messages.get(0).length() < this.compressThreshold) {
+        this.publisher.accept(channel, messages.get(0));
+        return;
+      }
+
+      this.publisher.accept(channel, RedisPubSubFrame.encode(messages, this.compressThreshold));
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package de.blu.database.storage.redis;
+
+import de.blu.database.storage.pubsub.listener.PubSubListener;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The only lettuce listener on the pub/sub connection. A message is looked up by its channel or
+ * pattern and handed to the registered PubSubListeners on the callback executor, so a slow
+ * listener never blocks the netty event loop
+ */
+public final class RedisPubSubDispatcher extends RedisPubSubAdapter<String, String> {
+
+  private final Map<String, Set<PubSubListener>> channelListeners = new ConcurrentHashMap<>();
+  private final Map<String, Set<PubSubListener>> patternListeners = new ConcurrentHashMap<>();
+  private final Executor callbackExecutor;
+
+  public RedisPubSubDispatcher(Executor callbackExecutor) {
+    this.callbackExecutor = callbackExecutor;
+  }
+
+  @Override
+  public void message(String channel, String message) {
+    this.dispatch(this.channelListeners.get(channel), channel, message);
+  }
+
+  @Override
+  public void message(String pattern, String channel, String message) {
+    this.dispatch(this.patternListeners.get(pattern), channel, message);
+  }
+
+  /**
+   * Register a listener for channels
+   *
+   * @param listener the listener
+   * @param channels the channels
+   * @return the channels which had no listener before and have to be subscribed
+   */
+  public synchronized Collection<String> addChannelListener(
+      PubSubListener listener, String... channels) {
+    return this.add(this.channelListeners, listener, channels);
+  }
+
+  /**
+   * Register a listener for patterns
+   *
+   * @param listener the listener
+   * @param patterns the patterns
+   * @return the patterns which had no listener before and have to be subscribed
+   */
+  public synchronized Collection<String> addPatternListener(
+      PubSubListener listener, String... patterns) {
+    return this.add(this.patternListeners, listener, patterns);
+  }
+
+  /**
+   * Remove a listener from channels
+   *
+   * @param listener the listener
+   * @param channels the channels
+   * @return the channels which have no listener anymore and can be unsubscribed
+   */
+  public synchronized Collection<String> removeChannelListener(
+      PubSubListener listener, String... channels) {
+    return this.remove(this.channelListeners, listener, channels);
+  }
+
+  /**
+   * Remove a listener from patterns
+   *
+   * @param listener the listener
+   * @param patterns the patterns
+   * @return the patterns which have no listener anymore and can be unsubscribed
+   */
+  public synchronized Collection<String> removePatternListener(
+      PubSubListener listener, String... patterns) {
+    return this.remove(this.patternListeners, listener, patterns);
+  }
+
+  public void clear() {
+    this.channelListeners.clear();
+    this.patternListeners.clear();
+  }
+
+  private void dispatch(Set<PubSubListener> listeners, String channel, String message) {
+    if (listeners == null) {
+      return;
+    }
+
+    // only messages of publishBatched are frames, every other message is passed on as it is
+    List<String> messages;
+    try {
+      messages =
+          RedisPubSubFrame.isFrame(message)
+              ? RedisPubSubFrame.decode(message)
+              : Collections.singletonList(message);
+    } catch (Exception e) {
+      e.printStackTrace();
+      return;
+    }
+
+    for (PubSubListener listener : listeners) {
+      try {
+        this.callbackExecutor.execute(
+            () -> {
+              for (String frameMessage : messages) {
+                try {
+                  listener.onMessageReceived(channel, frameMessage);
+                } catch (Exception e) {
+                  e.printStackTrace();
+                }
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private Collection<String> add(
+      Map<String, Set<PubSubListener>> listeners, PubSubListener listener, String... keys) {
+    Collection<String> added = new ArrayList<>();
+    for (String key : keys) {
+      Set<PubSubListener> keyListeners = listeners.get(key);
+      if (keyListeners == null) {
+        keyListeners = new CopyOnWriteArraySet<>();
+        listeners.put(key, keyListeners);
+        added.add(key);
+      }
+
+      keyListeners.add(listener);
+    }
+
+    return added;
+  }
+
+  private Collection<String> remove(
+      Map<String, Set<PubSubListener>> listeners, PubSubListener listener, String... keys) {
+    Collection<String> removed = new ArrayList<>();
+    for (String key : keys) {
+      Set<PubSubListener> keyListeners = listeners.get(key);
+      if (keyListeners == null || !keyListeners.remove(listener)) {
+        continue;
+      }
+
+      if (keyListeners.isEmpty()) {
+        listeners.remove(key);
+        removed.add(key);
+      }
+    }
+
+    return removed;
+  }
+}
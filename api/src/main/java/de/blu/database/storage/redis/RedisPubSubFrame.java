@@ -0,0 +1,126 @@
+package de.blu.database.storage.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Packs multiple pub/sub messages into one payload. A frame starts with a marker which no normal
+ * message uses, followed by a flag if the body is plain or deflated and Base64 encoded. The body
+ * holds every message as its length, a colon and the message itself
+ */
+public final class RedisPubSubFrame {
+
+  private static final String MARKER = "\u0000DBF1";
+  private static final char PLAIN = 'P';
+  private static final char DEFLATED = 'D';
+
+  private RedisPubSubFrame() {}
+
+  /**
+   * Pack messages into one payload
+   *
+   * @param messages the messages in the order they should be received
+   * @param compressThreshold the size in bytes from which the body gets deflated, 0 or less to
+   *     never deflate
+   * @return the payload to publish
+   */
+  public static String encode(List<String> messages, int compressThreshold) {
+    StringBuilder body = new StringBuilder();
+    for (String message : messages) {
+      body.append(message.length()).append(':').append(message);
+    }
+
+    byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+    if (compressThreshold <= 0 || bytes.length < compressThreshold) {
+      return MARKER + PLAIN + body;
+    }
+
+    return MARKER + DEFLATED + Base64.getEncoder().encodeToString(deflate(bytes));
+  }
+
+  /**
+   * Check if a payload was published with {@link #encode(List, int)}, without looking further than
+   * its first characters
+   *
+   * @param payload the received payload
+   * @return true if the payload is a frame
+   */
+  public static boolean isFrame(String payload) {
+    return payload.length() > MARKER.length() && payload.startsWith(MARKER);
+  }
+
+  /**
+   * Unpack a payload which was published with {@link #encode(List, int)}, every other payload is
+   * returned as it is
+   *
+   * @param payload the received payload
+   * @return the messages in the order they were published
+   */
+  public static List<String> decode(String payload) {
+    if (!RedisPubSubFrame.isFrame(payload)) {
+      return Collections.singletonList(payload);
+    }
+
+    String body = payload.substring(MARKER.length() + 1);
+    if (payload.charAt(MARKER.length()) == DEFLATED) {
+      body = new String(inflate(Base64.getDecoder().decode(body)), StandardCharsets.UTF_8);
+    }
+
+    List<String> messages = new ArrayList<>();
+    int position = 0;
+    while (position < body.length()) {
+      int separator = body.indexOf(':', position);
+      int length = Integer.parseInt(body.substring(position, separator));
+      messages.add(body.substring(separator + 1, separator + 1 + length));
+      position = separator + 1 + length;
+    }
+
+    return messages;
+  }
+
+  private static byte[] deflate(byte[] bytes) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    deflater.setInput(bytes);
+    deflater.finish();
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+    byte[] buffer = new byte[4096];
+    while (!deflater.finished()) {
+      output.write(buffer, 0, deflater.deflate(buffer));
+    }
+
+    deflater.end();
+    return output.toByteArray();
+  }
+
+  private static byte[] inflate(byte[] bytes) {
+    Inflater inflater = new Inflater();
+    inflater.setInput(bytes);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 2);
+    byte[] buffer = new byte[4096];
+    try {
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && inflater.needsInput()) {
+          throw new IllegalArgumentException("Truncated pub/sub frame");
+        }
+
+        output.write(buffer, 0, length);
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Invalid pub/sub frame", e);
+    } finally {
+      inflater.end();
+    }
+
+    return output.toByteArray();
+  }
+}
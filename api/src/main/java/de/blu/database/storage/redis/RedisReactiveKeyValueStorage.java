@@ -0,0 +1,115 @@
+package de.blu.database.storage.redis;
+
+import de.blu.database.storage.ReactiveKeyValueStorage;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanStream;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reactive commands on the same multiplexed connection as the sync and async commands of {@link
+ * RedisConnectionProvider}, so no thread is needed per pending command
+ */
+public final class RedisReactiveKeyValueStorage implements ReactiveKeyValueStorage {
+
+  private final RedisConnectionProvider connectionProvider;
+
+  public RedisReactiveKeyValueStorage(RedisConnectionProvider connectionProvider) {
+    this.connectionProvider = connectionProvider;
+  }
+
+  @Override
+  public Mono<Void> set(String key, String value, int expireSeconds) {
+    if (!this.connectionProvider.isConnected()) {
+      return this.notConnected();
+    }
+
+    // like an expired key, SETEX would reject the expire time
+    if (expireSeconds <= 0) {
+      return this.commands().del(key).then();
+    }
+
+    return this.commands().setex(key, expireSeconds, value).then();
+  }
+
+  @Override
+  public Mono<Void> remove(String key) {
+    if (!this.connectionProvider.isConnected()) {
+      return this.notConnected();
+    }
+
+    return this.commands().del(key).then();
+  }
+
+  @Override
+  public Mono<String> get(String key) {
+    if (!this.connectionProvider.isConnected()) {
+      return this.notConnected();
+    }
+
+    return this.commands().get(key);
+  }
+
+  @Override
+  public Flux<Map.Entry<String, String>> getMany(Collection<String> keys) {
+    if (!this.connectionProvider.isConnected()) {
+      return Flux.error(new IllegalStateException("Redis is not connected!"));
+    }
+
+    return Flux.fromIterable(keys)
+        .buffer(this.connectionProvider.getBatchSize())
+        .concatMap(chunk -> this.commands().mget(chunk.toArray(new String[0])))
+        .filter(KeyValue::hasValue)
+        .map(
+            keyValue ->
+                new AbstractMap.SimpleImmutableEntry<>(keyValue.getKey(), keyValue.getValue()));
+  }
+
+  @Override
+  public Flux<String> scanKeys(String pattern) {
+    if (!this.connectionProvider.isConnected()) {
+      return Flux.error(new IllegalStateException("Redis is not connected!"));
+    }
+
+    return ScanStream.scan(
+        this.commands(),
+        ScanArgs.Builder.matches(pattern).limit(this.connectionProvider.getScanCount()));
+  }
+
+  @Override
+  public Mono<Boolean> contains(String key) {
+    if (!this.connectionProvider.isConnected()) {
+      return this.notConnected();
+    }
+
+    return this.commands().exists(key).map(count -> count > 0);
+  }
+
+  @Override
+  public Mono<Boolean> containsPrefix(String prefix) {
+    return this.scanKeys(prefix + "*").hasElements();
+  }
+
+  @Override
+  public Mono<Integer> getRemainingTimeFromKey(String key) {
+    if (!this.connectionProvider.isConnected()) {
+      return this.notConnected();
+    }
+
+    return this.commands().pttl(key).map(RedisConnectionProvider::toRemainingSeconds);
+  }
+
+  private RedisReactiveCommands<String, String> commands() {
+    return this.connectionProvider.getConnectionCache().reactive();
+  }
+
+  private <T> Mono<T> notConnected() {
+    return Mono.error(new IllegalStateException("Redis is not connected!"));
+  }
+}
@@ -0,0 +1,121 @@
+package de.blu.database.storage.redis;
+
+import de.blu.database.metrics.CallSite;
+import de.blu.database.metrics.SlowOperationRecorder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Records the slow commands of lettuce command interfaces. Async commands are recorded when their
+ * future completes, with the call site of the code which sent them. Sync commands only capture
+ * their call site once they turned out to be slow, they are still on the calling thread then
+ */
+final class RedisSlowLogHandler implements InvocationHandler {
+
+  private final Object commands;
+  private final SlowOperationRecorder recorder;
+
+  private RedisSlowLogHandler(Object commands, SlowOperationRecorder recorder) {
+    this.commands = commands;
+    this.recorder = recorder;
+  }
+
+  /**
+   * Wrap lettuce commands, without an enabled recorder the commands are returned as they are
+   *
+   * @param type the interface of the commands, e.g. RedisCommands.class
+   * @param commands the commands
+   * @param recorder the recorder
+   * @param <T> the type of the commands
+   * @return the wrapped commands
+   */
+  // the proxy implements type, so it is a T as long as T adds nothing but type arguments to type
+  @SuppressWarnings("unchecked")
+  static <T> T wrap(Class<? super T> type, T commands, SlowOperationRecorder recorder) {
+    if (!recorder.isEnabled()) {
+      return commands;
+    }
+
+    return (T)
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            new RedisSlowLogHandler(commands, recorder));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return this.call(method, args);
+    }
+
+    // a sync command is recorded on the calling thread, its call site is captured there if needed
+    boolean async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    CallSite callSite = async ? this.recorder.capture() : null;
+    long startNanos = System.nanoTime();
+
+    Object result;
+    try {
+      result = this.call(method, args);
+    } catch (Throwable throwable) {
+      this.record(method, args, null, startNanos, callSite, throwable);
+      throw throwable;
+    }
+
+    if (result instanceof CompletionStage) {
+      ((CompletionStage<?>) result)
+          .whenComplete(
+              (value, throwable) ->
+                  this.record(method, args, value, startNanos, callSite, throwable));
+    } else {
+      this.record(method, args, result, startNanos, callSite, null);
+    }
+
+    return result;
+  }
+
+  private Object call(Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(this.commands, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void record(
+      Method method,
+      Object[] args,
+      Object result,
+      long startNanos,
+      CallSite callSite,
+      Throwable error) {
+    String command = method.getName().toUpperCase();
+    String statement = command;
+    if (args != null && args.length > 0) {
+      if (args[0] instanceof String) {
+        statement += " " + args[0];
+      } else if (args[0] instanceof Object[]) {
+        statement += " [" + ((Object[]) args[0]).length + " keys]";
+      }
+    }
+
+    long rows = -1;
+    if (result instanceof Collection) {
+      rows = ((Collection<?>) result).size();
+    } else if (result instanceof Map) {
+      rows = ((Map<?, ?>) result).size();
+    } else if (result instanceof String) {
+      rows = 1;
+    } else if (result == null && error == null) {
+      rows = 0;
+    }
+
+    this.recorder.record(command, statement, rows, startNanos, callSite, error);
+  }
+}
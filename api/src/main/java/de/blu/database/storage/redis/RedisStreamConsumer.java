@@ -0,0 +1,272 @@
+package de.blu.database.storage.redis;
+
+import de.blu.database.metrics.Metrics;
+import de.blu.database.storage.stream.listener.StreamListener;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.models.stream.PendingMessage;
+import io.lettuce.core.models.stream.PendingParser;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reads a stream as a member of a consumer group on its own connection, because XREADGROUP blocks
+ * the connection while it waits for messages. Every read batch is handed to the worker pool and
+ * all messages which were processed are acknowledged with one XACK. A message which was delivered
+ * maxDeliveries times without being processed is moved to the dead-letter stream and acknowledged
+ */
+@Getter
+public final class RedisStreamConsumer implements Runnable {
+
+  private static final String DEAD_LETTER_SUFFIX = ":dead-letter";
+
+  private final StatefulRedisConnection<String, String> connection;
+  private final RedisCommands<String, String> commands;
+  private final String stream;
+  private final String group;
+  private final Consumer<String> consumer;
+  private final XReadArgs.StreamOffset<String>[] offsets;
+  private final StreamListener listener;
+  private final ExecutorService workerExecutor;
+  private final int batchSize;
+  private final long blockMillis;
+  private final long claimIdleMillis;
+  private final long maxDeliveries;
+
+  private volatile boolean running;
+  private Thread thread;
+  private long lastClaim;
+
+  public RedisStreamConsumer(
+      StatefulRedisConnection<String, String> connection,
+      String stream,
+      String group,
+      String consumer,
+      StreamListener listener,
+      ExecutorService workerExecutor,
+      int batchSize,
+      long blockMillis,
+      long claimIdleMillis,
+      int maxDeliveries) {
+    this.connection = connection;
+    this.commands = connection.sync();
+    this.stream = stream;
+    this.group = group;
+    this.consumer = Consumer.from(group, consumer);
+    this.offsets = RedisStreamConsumer.lastConsumed(stream);
+    this.listener = listener;
+    this.workerExecutor = workerExecutor;
+    this.batchSize = Math.max(1, batchSize);
+    this.blockMillis = Math.max(1, blockMillis);
+    this.claimIdleMillis = Math.max(1, claimIdleMillis);
+    this.maxDeliveries = Math.max(1, maxDeliveries);
+  }
+
+  /** Create the consumer group if needed and start reading */
+  public void start() {
+    try {
+      this.getCommands()
+          .xgroupCreate(
+              XReadArgs.StreamOffset.from(this.getStream(), "$"),
+              this.getGroup(),
+              XGroupCreateArgs.Builder.mkstream());
+    } catch (Exception e) {
+      // BUSYGROUP, the group exists already
+      if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+        throw e;
+      }
+    }
+
+    this.running = true;
+    this.thread = new Thread(this, "database-redis-stream-" + this.getStream());
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /** Stop reading, messages which are being processed right now are acknowledged on next start */
+  public void stop() {
+    this.running = false;
+    this.getConnection().close();
+
+    if (this.thread != null) {
+      this.thread.interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    while (this.running) {
+      try {
+        if (System.currentTimeMillis() - this.lastClaim >= this.getClaimIdleMillis()) {
+          this.lastClaim = System.currentTimeMillis();
+          this.process(this.claimPending());
+        }
+
+        this.process(
+            this.getCommands()
+                .xreadgroup(
+                    this.getConsumer(),
+                    XReadArgs.Builder.count(this.getBatchSize()).block(this.getBlockMillis()),
+                    this.getOffsets()));
+      } catch (Exception e) {
+        if (!this.running) {
+          return;
+        }
+
+        e.printStackTrace();
+
+        try {
+          Thread.sleep(1000);
+        } catch (InterruptedException interruptedException) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Take over the messages which were delivered to any consumer of the group but not acknowledged
+   * for claimIdleMillis, for example because that consumer crashed. Messages which were delivered
+   * maxDeliveries times already are moved to the dead-letter stream instead
+   *
+   * @return the claimed messages
+   */
+  private List<StreamMessage<String, String>> claimPending() {
+    List<PendingMessage> pendingMessages =
+        PendingParser.parseRange(
+            this.getCommands()
+                .xpending(
+                    this.getStream(),
+                    this.getGroup(),
+                    Range.unbounded(),
+                    Limit.from(this.getBatchSize())));
+
+    List<String> ids = new ArrayList<>();
+    List<String> deadIds = new ArrayList<>();
+    for (PendingMessage pendingMessage : pendingMessages) {
+      if (pendingMessage.getMsSinceLastDelivery() < this.getClaimIdleMillis()) {
+        continue;
+      }
+
+      if (pendingMessage.getRedeliveryCount() >= this.getMaxDeliveries()) {
+        deadIds.add(pendingMessage.getId());
+      } else {
+        ids.add(pendingMessage.getId());
+      }
+    }
+
+    if (!deadIds.isEmpty()) {
+      this.deadLetter(deadIds);
+    }
+
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    return this.getCommands()
+        .xclaim(
+            this.getStream(),
+            this.getConsumer(),
+            this.getClaimIdleMillis(),
+            ids.toArray(new String[0]));
+  }
+
+  /**
+   * Copy the messages to the dead-letter stream and acknowledge them, so they are not claimed again
+   *
+   * @param ids the ids of the messages
+   */
+  private void deadLetter(List<String> ids) {
+    String deadLetterStream = this.getStream() + DEAD_LETTER_SUFFIX;
+    for (String id : ids) {
+      // empty if the message was trimmed from the stream in the meantime
+      for (StreamMessage<String, String> message :
+          this.getCommands().xrange(this.getStream(), Range.create(id, id))) {
+        if (message.getBody() != null && !message.getBody().isEmpty()) {
+          this.getCommands().xadd(deadLetterStream, message.getBody());
+        }
+      }
+    }
+
+    this.getCommands().xack(this.getStream(), this.getGroup(), ids.toArray(new String[0]));
+
+    Exception exception =
+        new Exception(
+            "Moved "
+                + ids
+                + " of stream "
+                + this.getStream()
+                + " to "
+                + deadLetterStream
+                + " after "
+                + this.getMaxDeliveries()
+                + " deliveries!");
+    exception.printStackTrace();
+    Metrics.reportError(exception);
+  }
+
+  private void process(List<StreamMessage<String, String>> messages) {
+    if (messages == null || messages.isEmpty()) {
+      return;
+    }
+
+    List<CompletableFuture<String>> futures = new ArrayList<>(messages.size());
+    for (StreamMessage<String, String> message : messages) {
+      try {
+        futures.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  // the message was trimmed from the stream before it could be claimed
+                  if (message.getBody() == null) {
+                    return message.getId();
+                  }
+
+                  try {
+                    this.getListener()
+                        .onMessageReceived(this.getStream(), message.getId(), message.getBody());
+                    return message.getId();
+                  } catch (Exception e) {
+                    e.printStackTrace();
+                    return null;
+                  }
+                },
+                this.getWorkerExecutor()));
+      } catch (RejectedExecutionException e) {
+        // the workers are saturated, the other messages stay pending and are claimed again
+        e.printStackTrace();
+        break;
+      }
+    }
+
+    List<String> processedIds = new ArrayList<>(messages.size());
+    for (CompletableFuture<String> future : futures) {
+      String id = future.join();
+      if (id != null) {
+        processedIds.add(id);
+      }
+    }
+
+    if (!processedIds.isEmpty()) {
+      this.getCommands()
+          .xack(this.getStream(), this.getGroup(), processedIds.toArray(new String[0]));
+    }
+  }
+
+  // xreadgroup takes the offsets as varargs, an explicitly typed array avoids a generic array
+  @SuppressWarnings("unchecked")
+  private static XReadArgs.StreamOffset<String>[] lastConsumed(String stream) {
+    return (XReadArgs.StreamOffset<String>[])
+        new XReadArgs.StreamOffset<?>[] {XReadArgs.StreamOffset.lastConsumed(stream)};
+  }
+}
@@ -0,0 +1,47 @@
+package de.blu.database.storage.stream;
+
+import de.blu.database.storage.stream.listener.StreamListener;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface StreamStorage {
+
+  /**
+   * Append a Message to a Stream, the Stream is trimmed to about the configured max length
+   *
+   * @param stream the stream
+   * @param message the fields and values of the message
+   * @return the id of the message or null if it failed
+   */
+  String add(String stream, Map<String, String> message);
+
+  /**
+   * Append a Message to a Stream Async
+   *
+   * @param stream the stream
+   * @param message the fields and values of the message
+   * @return future which is completed with the id of the message or exceptionally if it failed
+   */
+  CompletableFuture<String> addFuture(String stream, Map<String, String> message);
+
+  /**
+   * Consume a Stream as a member of a consumer group. Every message is delivered to one consumer
+   * of the group at least once, messages which were not acknowledged are claimed again after a
+   * while. The group is created if it does not exist
+   *
+   * @param stream the stream
+   * @param group the consumer group
+   * @param consumer the name of this consumer, unique in the group
+   * @param listener the listener which is called for every message
+   */
+  void consume(String stream, String group, String consumer, StreamListener listener);
+
+  /**
+   * Stop consuming a Stream
+   *
+   * @param stream the stream
+   * @param group the consumer group
+   */
+  void stopConsuming(String stream, String group);
+}
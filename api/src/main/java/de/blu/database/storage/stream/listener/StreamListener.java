@@ -0,0 +1,15 @@
+package de.blu.database.storage.stream.listener;
+
+import java.util.Map;
+
+public interface StreamListener {
+  /**
+   * Will be called for every message which was read from the stream. The message is acknowledged
+   * when this returns normally, if it throws the message is delivered again later
+   *
+   * @param stream the stream
+   * @param id the id of the message
+   * @param message the fields and values of the message
+   */
+  void onMessageReceived(String stream, String id, Map<String, String> message);
+}
@@ -0,0 +1,28 @@
+package de.blu.database.storage.writebehind;
+
+import java.util.List;
+
+public interface WriteBehindFlusher {
+  /**
+   * Write queued inserts of one table and column list
+   *
+   * @param tableName the name of the table
+   * @param keys the columns
+   * @param rows the values of every row in the order of the columns
+   * @throws Exception if the rows could not be written
+   */
+  void flushInserts(String tableName, String[] keys, List<Object[]> rows) throws Exception;
+
+  /**
+   * Write merged updates of one table, column list and condition column
+   *
+   * @param tableName the name of the table
+   * @param keys the updated columns
+   * @param whereKey the column of the condition
+   * @param rows the values of every row in the order of the columns followed by the value of the
+   *     condition
+   * @throws Exception if the rows could not be written
+   */
+  void flushUpdates(String tableName, String[] keys, String whereKey, List<Object[]> rows)
+      throws Exception;
+}
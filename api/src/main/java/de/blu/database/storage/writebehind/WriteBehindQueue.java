@@ -0,0 +1,574 @@
+package de.blu.database.storage.writebehind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers async updates and inserts and writes them in batches. Updates of the same row (same
+ * table, condition column and condition value) are merged, the last value of every column wins, so
+ * a row which changes many times between two flushes is only written once. Inserts are written
+ * before updates on every flush. If a batch fails its rows are written one by one, so a row which
+ * can never be written does not hold back the other rows of its batch. A row which fails is queued
+ * again under the values which were queued meanwhile and is dropped after MAX_ATTEMPTS failed
+ * writes of that row. The flusher has to write a batch all or nothing or idempotent, because the
+ * rows of a failed batch are written again
+ */
+public final class WriteBehindQueue {
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final WriteBehindFlusher flusher;
+  private final long flushIntervalMillis;
+  private final int maxPendingRows;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final Object flushLock = new Object();
+
+  private Map<List<Object>, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+  private Map<List<Object>, PendingInsert> pendingInserts = new LinkedHashMap<>();
+  private int pendingRows;
+
+  private final LongAdder queuedCount = new LongAdder();
+  private final LongAdder writtenCount = new LongAdder();
+
+  /**
+   * Create a queue and start its flush timer
+   *
+   * @param name the name of the storage, used for the thread name
+   * @param flusher writes the batches
+   * @param flushIntervalMillis the max time in millis a write waits in the queue
+   * @param maxPendingRows the amount of queued rows which starts a flush right away
+   */
+  public WriteBehindQueue(
+      String name, WriteBehindFlusher flusher, long flushIntervalMillis, int maxPendingRows) {
+    this.flusher = flusher;
+    this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+    this.maxPendingRows = Math.max(1, maxPendingRows);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "database-" + name + "-write-behind");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    this.scheduler.scheduleWithFixedDelay(
+        this::flush, this.flushIntervalMillis, this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queue an update
+   *
+   * @param tableName the name of the table
+   * @param keys the columns to update
+   * @param values the new values
+   * @param whereKey the column of the condition
+   * @param whereValue the value of the condition
+   */
+  public void update(
+      String tableName, String[] keys, Object[] values, String whereKey, Object whereValue) {
+    List<Object> rowKey = WriteBehindQueue.rowKey(tableName, whereKey, whereValue);
+
+    synchronized (this) {
+      PendingUpdate update = this.pendingUpdates.get(rowKey);
+      if (update == null) {
+        update = new PendingUpdate(tableName, whereKey, whereValue);
+        this.pendingUpdates.put(rowKey, update);
+        this.pendingRows++;
+      }
+
+      for (int i = 0; i < keys.length; i++) {
+        update.values.put(keys[i], values[i]);
+      }
+    }
+
+    this.queued();
+  }
+
+  /**
+   * Queue an insert
+   *
+   * @param tableName the name of the table
+   * @param keys the columns
+   * @param values the values
+   */
+  public void insert(String tableName, String[] keys, Object[] values) {
+    List<Object> insertKey = WriteBehindQueue.insertKey(tableName, keys);
+
+    synchronized (this) {
+      // the caller may reuse its arrays for the next write
+      this.pendingInserts
+          .computeIfAbsent(insertKey, key -> new PendingInsert(tableName, keys.clone()))
+          .rows
+          .add(new InsertRow(values.clone()));
+      this.pendingRows++;
+    }
+
+    this.queued();
+  }
+
+  /** Write every queued row now, returns when all batches were written */
+  public void flush() {
+    synchronized (this.flushLock) {
+      Map<List<Object>, PendingUpdate> updates;
+      Map<List<Object>, PendingInsert> inserts;
+
+      synchronized (this) {
+        this.flushScheduled.set(false);
+        if (this.pendingRows == 0) {
+          return;
+        }
+
+        updates = this.pendingUpdates;
+        inserts = this.pendingInserts;
+        this.pendingUpdates = new LinkedHashMap<>();
+        this.pendingInserts = new LinkedHashMap<>();
+        this.pendingRows = 0;
+      }
+
+      this.write(inserts.values(), updates.values());
+    }
+  }
+
+  /**
+   * Write the queued insert and update of one row now, used before a write of the row which has to
+   * happen after them. Waits for a running flush, but does not write the other queued rows
+   *
+   * @param tableName the name of the table
+   * @param whereKey the column of the condition
+   * @param whereValue the value of the condition
+   */
+  public void flushRow(String tableName, String whereKey, Object whereValue) {
+    synchronized (this.flushLock) {
+      List<PendingInsert> inserts;
+      List<PendingUpdate> updates;
+
+      synchronized (this) {
+        inserts = this.takeInserts(tableName, whereKey, whereValue);
+        updates = this.takeUpdates(tableName, whereKey, whereValue);
+      }
+
+      this.write(inserts, updates);
+    }
+  }
+
+  /**
+   * Drop the queued insert and update of one row, used before a delete of the row which makes
+   * them pointless. Waits for a running flush which could write the row
+   *
+   * @param tableName the name of the table
+   * @param whereKey the column of the condition
+   * @param whereValue the value of the condition
+   */
+  public void dropRow(String tableName, String whereKey, Object whereValue) {
+    synchronized (this.flushLock) {
+      synchronized (this) {
+        this.takeInserts(tableName, whereKey, whereValue);
+        this.takeUpdates(tableName, whereKey, whereValue);
+      }
+    }
+  }
+
+  /**
+   * Write the queued insert and update of one row on the flush thread of the queue
+   *
+   * @param tableName the name of the table
+   * @param whereKey the column of the condition
+   * @param whereValue the value of the condition
+   * @return future which is completed when the row was written
+   */
+  public CompletableFuture<Void> flushRowFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.runOnFlushThread(() -> this.flushRow(tableName, whereKey, whereValue));
+  }
+
+  /**
+   * Drop the queued insert and update of one row on the flush thread of the queue
+   *
+   * @param tableName the name of the table
+   * @param whereKey the column of the condition
+   * @param whereValue the value of the condition
+   * @return future which is completed when the row was dropped
+   */
+  public CompletableFuture<Void> dropRowFuture(
+      String tableName, String whereKey, Object whereValue) {
+    return this.runOnFlushThread(() -> this.dropRow(tableName, whereKey, whereValue));
+  }
+
+  /**
+   * Write every queued row on the flush thread of the queue
+   *
+   * @return future which is completed when all batches were written
+   */
+  public CompletableFuture<Void> flushFuture() {
+    return this.runOnFlushThread(this::flush);
+  }
+
+  /**
+   * Stop the flush timer and write every queued row, rows which still fail after MAX_ATTEMPTS
+   * writes are logged
+   */
+  public void close() {
+    this.scheduler.shutdown();
+    try {
+      this.scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    for (int attempt = 0; attempt < MAX_ATTEMPTS && this.getPendingRows() > 0; attempt++) {
+      if (attempt > 0) {
+        try {
+          Thread.sleep(Math.min(this.flushIntervalMillis, 1000));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+
+      this.flush();
+    }
+
+    // rows which were queued while closing or are left after an interrupt
+    Map<List<Object>, PendingUpdate> updates;
+    Map<List<Object>, PendingInsert> inserts;
+    synchronized (this) {
+      updates = this.pendingUpdates;
+      inserts = this.pendingInserts;
+      this.pendingUpdates = new LinkedHashMap<>();
+      this.pendingInserts = new LinkedHashMap<>();
+      this.pendingRows = 0;
+    }
+
+    inserts.values().forEach(WriteBehindQueue::logDropped);
+    updates.values().forEach(WriteBehindQueue::logDropped);
+  }
+
+  public synchronized int getPendingRows() {
+    return this.pendingRows;
+  }
+
+  /**
+   * Get the amount of writes which were queued
+   *
+   * @return the amount of update and insert calls
+   */
+  public long getQueuedCount() {
+    return this.queuedCount.sum();
+  }
+
+  /**
+   * Get the amount of rows which were written, the difference to {@link #getQueuedCount()} are the
+   * merged updates
+   *
+   * @return the amount of written rows
+   */
+  public long getWrittenCount() {
+    return this.writtenCount.sum();
+  }
+
+  private void write(Collection<PendingInsert> inserts, Collection<PendingUpdate> updates) {
+    for (PendingInsert insert : inserts) {
+      List<InsertRow> retries =
+          this.writeBatch(
+              insert.rows,
+              rows -> {
+                List<Object[]> values = new ArrayList<>(rows.size());
+                for (InsertRow row : rows) {
+                  values.add(row.values);
+                }
+
+                this.flusher.flushInserts(insert.tableName, insert.keys, values);
+              });
+      this.requeue(insert, retries);
+    }
+
+    // rows which update the same columns are written in one batch
+    Map<List<Object>, List<PendingUpdate>> batches = new LinkedHashMap<>();
+    for (PendingUpdate update : updates) {
+      batches
+          .computeIfAbsent(
+              Arrays.asList(
+                  update.tableName, update.whereKey, String.join(",", update.values.keySet())),
+              key -> new ArrayList<>())
+          .add(update);
+    }
+
+    for (List<PendingUpdate> batch : batches.values()) {
+      PendingUpdate first = batch.get(0);
+      String[] keys = first.values.keySet().toArray(new String[0]);
+
+      List<PendingUpdate> retries =
+          this.writeBatch(
+              batch,
+              pendingUpdates -> {
+                List<Object[]> rows = new ArrayList<>(pendingUpdates.size());
+                for (PendingUpdate update : pendingUpdates) {
+                  Object[] row = update.values.values().toArray(new Object[keys.length + 1]);
+                  row[keys.length] = update.whereValue;
+                  rows.add(row);
+                }
+
+                this.flusher.flushUpdates(first.tableName, keys, first.whereKey, rows);
+              });
+      retries.forEach(this::requeue);
+    }
+  }
+
+  /**
+   * Write rows in one batch, if that fails write them one by one. When two rows in a row fail the
+   * database is most likely unavailable, the rows which were not tried are not counted as failed
+   *
+   * @param rows the rows
+   * @param writer writes some of the rows
+   * @return the rows which have to be written again, the failed ones with one more attempt
+   */
+  private <T extends PendingRow> List<T> writeBatch(List<T> rows, BatchWriter<T> writer) {
+    try {
+      writer.write(rows);
+      this.writtenCount.add(rows.size());
+      return Collections.emptyList();
+    } catch (Exception e) {
+      e.printStackTrace();
+      if (rows.size() == 1) {
+        rows.get(0).attempts++;
+        return rows;
+      }
+    }
+
+    List<T> retries = new ArrayList<>();
+    boolean previousFailed = false;
+    for (int i = 0; i < rows.size(); i++) {
+      T row = rows.get(i);
+      try {
+        writer.write(Collections.singletonList(row));
+        this.writtenCount.increment();
+        previousFailed = false;
+      } catch (Exception e) {
+        e.printStackTrace();
+        row.attempts++;
+        retries.add(row);
+
+        if (previousFailed) {
+          retries.addAll(rows.subList(i + 1, rows.size()));
+          break;
+        }
+
+        previousFailed = true;
+      }
+    }
+
+    return retries;
+  }
+
+  /** Queue failed insert rows again in front of the inserts which were queued meanwhile */
+  private void requeue(PendingInsert failed, List<InsertRow> rows) {
+    List<InsertRow> retries = new ArrayList<>(rows.size());
+    for (InsertRow row : rows) {
+      if (row.attempts >= MAX_ATTEMPTS) {
+        WriteBehindQueue.logDropped(failed, row);
+      } else {
+        retries.add(row);
+      }
+    }
+
+    if (retries.isEmpty()) {
+      return;
+    }
+
+    List<Object> insertKey = WriteBehindQueue.insertKey(failed.tableName, failed.keys);
+    synchronized (this) {
+      PendingInsert newer = this.pendingInserts.get(insertKey);
+      if (newer == null) {
+        PendingInsert insert = new PendingInsert(failed.tableName, failed.keys);
+        insert.rows.addAll(retries);
+        this.pendingInserts.put(insertKey, insert);
+      } else {
+        newer.rows.addAll(0, retries);
+      }
+
+      this.pendingRows += retries.size();
+    }
+  }
+
+  /** Queue a failed update again, the values which were queued meanwhile win */
+  private void requeue(PendingUpdate failed) {
+    if (failed.attempts >= MAX_ATTEMPTS) {
+      WriteBehindQueue.logDropped(failed);
+      return;
+    }
+
+    List<Object> rowKey =
+        WriteBehindQueue.rowKey(failed.tableName, failed.whereKey, failed.whereValue);
+    synchronized (this) {
+      PendingUpdate newer = this.pendingUpdates.get(rowKey);
+      if (newer == null) {
+        this.pendingRows++;
+      } else {
+        failed.values.putAll(newer.values);
+      }
+
+      this.pendingUpdates.put(rowKey, failed);
+    }
+  }
+
+  /** Remove the queued inserts of a row, the caller holds the lock of the queue */
+  private List<PendingInsert> takeInserts(String tableName, String whereKey, Object whereValue) {
+    List<PendingInsert> taken = new ArrayList<>();
+    Iterator<PendingInsert> inserts = this.pendingInserts.values().iterator();
+    while (inserts.hasNext()) {
+      PendingInsert insert = inserts.next();
+      int column = Arrays.asList(insert.keys).indexOf(whereKey);
+      if (!insert.tableName.equals(tableName) || column == -1) {
+        continue;
+      }
+
+      PendingInsert rowInsert = new PendingInsert(insert.tableName, insert.keys);
+      Iterator<InsertRow> rows = insert.rows.iterator();
+      while (rows.hasNext()) {
+        InsertRow row = rows.next();
+        if (Objects.equals(row.values[column], whereValue)) {
+          rows.remove();
+          rowInsert.rows.add(row);
+          this.pendingRows--;
+        }
+      }
+
+      if (insert.rows.isEmpty()) {
+        inserts.remove();
+      }
+
+      if (!rowInsert.rows.isEmpty()) {
+        taken.add(rowInsert);
+      }
+    }
+
+    return taken;
+  }
+
+  /** Remove the queued update of a row, the caller holds the lock of the queue */
+  private List<PendingUpdate> takeUpdates(String tableName, String whereKey, Object whereValue) {
+    PendingUpdate update =
+        this.pendingUpdates.remove(WriteBehindQueue.rowKey(tableName, whereKey, whereValue));
+    if (update == null) {
+      return Collections.emptyList();
+    }
+
+    this.pendingRows--;
+    return Collections.singletonList(update);
+  }
+
+  private CompletableFuture<Void> runOnFlushThread(Runnable runnable) {
+    try {
+      return CompletableFuture.runAsync(runnable, this.scheduler);
+    } catch (RejectedExecutionException e) {
+      runnable.run();
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  private static List<Object> rowKey(String tableName, String whereKey, Object whereValue) {
+    return Arrays.asList(tableName, whereKey, whereValue);
+  }
+
+  private static List<Object> insertKey(String tableName, String[] keys) {
+    return Arrays.asList(tableName, String.join(",", keys));
+  }
+
+  private static void logDropped(PendingInsert insert) {
+    for (InsertRow row : insert.rows) {
+      WriteBehindQueue.logDropped(insert, row);
+    }
+  }
+
+  private static void logDropped(PendingInsert insert, InsertRow row) {
+    System.out.println(
+        "Could not write insert into "
+            + insert.tableName
+            + " "
+            + Arrays.toString(insert.keys)
+            + " values "
+            + Arrays.toString(row.values));
+  }
+
+  private static void logDropped(PendingUpdate update) {
+    System.out.println(
+        "Could not write update of "
+            + update.tableName
+            + " where "
+            + update.whereKey
+            + " = "
+            + update.whereValue
+            + " set "
+            + update.values);
+  }
+
+  private void queued() {
+    this.queuedCount.increment();
+
+    if (this.getPendingRows() >= this.maxPendingRows
+        && this.flushScheduled.compareAndSet(false, true)) {
+      try {
+        this.scheduler.execute(this::flush);
+      } catch (RejectedExecutionException e) {
+        // the queue is closed, close() writes the remaining rows
+        this.flushScheduled.set(false);
+      }
+    }
+  }
+
+  private interface BatchWriter<T> {
+    void write(List<T> rows) throws Exception;
+  }
+
+  /** A queued row, attempts counts the failed writes of this row */
+  private abstract static class PendingRow {
+    int attempts;
+  }
+
+  private static final class PendingUpdate extends PendingRow {
+    private final String tableName;
+    private final String whereKey;
+    private final Object whereValue;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private PendingUpdate(String tableName, String whereKey, Object whereValue) {
+      this.tableName = tableName;
+      this.whereKey = whereKey;
+      this.whereValue = whereValue;
+    }
+  }
+
+  private static final class PendingInsert {
+    private final String tableName;
+    private final String[] keys;
+    private final List<InsertRow> rows = new ArrayList<>();
+
+    private PendingInsert(String tableName, String[] keys) {
+      this.tableName = tableName;
+      this.keys = keys;
+    }
+  }
+
+  private static final class InsertRow extends PendingRow {
+    private final Object[] values;
+
+    private InsertRow(Object[] values) {
+      this.values = values;
+    }
+  }
+}
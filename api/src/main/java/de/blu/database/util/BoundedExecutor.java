@@ -0,0 +1,150 @@
+package de.blu.database.util;
+
+import lombok.Getter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread pool with a fixed maximum of named daemon threads and a bounded queue. Once the queue
+ * is full the RejectionPolicy decides what happens with a task, so a slow database can never pile
+ * up an unlimited amount of threads or tasks
+ */
+@Getter
+public final class BoundedExecutor extends ThreadPoolExecutor implements DatabaseExecutor {
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final String name;
+  private final int queueCapacity;
+  private final RejectionPolicy rejectionPolicy;
+  private final LongAdder rejectedCount = new LongAdder();
+  private final LongAdder callerRunsCount = new LongAdder();
+
+  /**
+   * Create a BoundedExecutor, the threads are named database-name-N and are stopped after being
+   * idle for a minute
+   *
+   * @param name the name of the executor, e.g. mysql-worker
+   * @param threads the maximum amount of threads
+   * @param queueCapacity the maximum amount of waiting tasks
+   * @param rejectionPolicy what to do with a task when all threads are busy and the queue is full
+   */
+  public BoundedExecutor(
+      String name, int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+    super(
+        Math.max(1, threads),
+        Math.max(1, threads),
+        KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+
+    this.name = name;
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.rejectionPolicy = rejectionPolicy;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.setThreadFactory(
+        runnable -> {
+          Thread thread =
+              new Thread(runnable, "database-" + name + "-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.setRejectedExecutionHandler(new Rejector());
+    this.allowCoreThreadTimeOut(true);
+
+    DatabaseExecutors.register(this);
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return this.getQueue().size();
+  }
+
+  @Override
+  public String toString() {
+    return "database-"
+        + this.getName()
+        + " [threads="
+        + this.getPoolSize()
+        + "/"
+        + this.getMaximumPoolSize()
+        + ", active="
+        + this.getActiveCount()
+        + ", queue="
+        + this.getQueueDepth()
+        + "/"
+        + this.getQueueCapacity()
+        + ", completed="
+        + this.getCompletedTaskCount()
+        + ", rejected="
+        + this.getRejectedCount().sum()
+        + ", callerRuns="
+        + this.getCallerRunsCount().sum()
+        + "]";
+  }
+
+  @Override
+  protected void terminated() {
+    super.terminated();
+    DatabaseExecutors.unregister(this);
+  }
+
+  /** What happens with a task when all threads are busy and the queue is full */
+  public enum RejectionPolicy {
+    /** Run the task on the submitting thread, which slows the submitter down */
+    CALLER_RUNS,
+    /** Throw a RejectedExecutionException to the submitter */
+    ABORT;
+
+    /**
+     * Get a RejectionPolicy by its name
+     *
+     * @param name the name, case is ignored
+     * @return the policy or CALLER_RUNS if the name is unknown
+     */
+    public static RejectionPolicy of(String name) {
+      return RejectionPolicy.of(name, CALLER_RUNS);
+    }
+
+    /**
+     * Get a RejectionPolicy by its name
+     *
+     * @param name the name, case is ignored
+     * @param defaultPolicy the policy if the name is unknown
+     * @return the policy
+     */
+    public static RejectionPolicy of(String name, RejectionPolicy defaultPolicy) {
+      for (RejectionPolicy policy : RejectionPolicy.values()) {
+        if (policy.name().equalsIgnoreCase(name)) {
+          return policy;
+        }
+      }
+
+      return defaultPolicy;
+    }
+  }
+
+  private final class Rejector implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+      // after a shutdown late callbacks still have to run, otherwise their futures never complete
+      if (executor.isShutdown()
+          || BoundedExecutor.this.getRejectionPolicy() == RejectionPolicy.CALLER_RUNS) {
+        BoundedExecutor.this.getCallerRunsCount().increment();
+        runnable.run();
+        return;
+      }
+
+      BoundedExecutor.this.getRejectedCount().increment();
+      throw new RejectedExecutionException(
+          "Executor database-" + BoundedExecutor.this.getName() + " is saturated");
+    }
+  }
+}
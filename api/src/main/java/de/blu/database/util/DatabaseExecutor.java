@@ -0,0 +1,57 @@
+package de.blu.database.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/** An ExecutorService of a database backend which can report its load and drain on disconnect */
+public interface DatabaseExecutor extends ExecutorService {
+
+  /**
+   * Get the name of the executor, the threads are named database-name-N
+   *
+   * @return the name
+   */
+  String getName();
+
+  /**
+   * Get the amount of tasks which are running right now
+   *
+   * @return the active count
+   */
+  int getActiveCount();
+
+  /**
+   * Get the amount of tasks waiting to be run
+   *
+   * @return the queue depth
+   */
+  int getQueueDepth();
+
+  /**
+   * Stop accepting tasks and wait until the queued and running tasks are done. Tasks which are
+   * still running after the timeout are interrupted
+   *
+   * @param timeoutMillis how long to wait for the queued and running tasks
+   * @return true if all tasks were done in time
+   */
+  default boolean shutdownGracefully(long timeoutMillis) {
+    this.shutdown();
+
+    try {
+      if (this.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    int dropped = this.shutdownNow().size();
+    System.out.println(
+        "Executor database-"
+            + this.getName()
+            + " did not finish in time, dropped "
+            + dropped
+            + " queued tasks");
+    return false;
+  }
+}
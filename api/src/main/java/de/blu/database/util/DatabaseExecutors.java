@@ -0,0 +1,66 @@
+package de.blu.database.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/** Creates the executors of the database backends and keeps track of the running ones */
+public final class DatabaseExecutors {
+
+  private static final Set<DatabaseExecutor> EXECUTORS = new CopyOnWriteArraySet<>();
+
+  private DatabaseExecutors() {}
+
+  /**
+   * Create an executor for blocking work. With virtual threads every task gets its own virtual
+   * thread and at most maxConcurrency tasks run at the same time, the others wait without holding
+   * a platform thread. Without virtual threads or if the JVM has none a BoundedExecutor with
+   * maxConcurrency threads is created
+   *
+   * @param name the name of the executor, e.g. mysql-worker
+   * @param maxConcurrency the maximum amount of tasks running at the same time
+   * @param queueCapacity the maximum amount of waiting tasks of the BoundedExecutor
+   * @param rejectionPolicy the RejectionPolicy of the BoundedExecutor
+   * @param virtualThreads if virtual threads should be used when available
+   * @return the executor
+   */
+  public static DatabaseExecutor create(
+      String name,
+      int maxConcurrency,
+      int queueCapacity,
+      BoundedExecutor.RejectionPolicy rejectionPolicy,
+      boolean virtualThreads) {
+    if (virtualThreads) {
+      if (VirtualThreadExecutor.isSupported()) {
+        return new VirtualThreadExecutor(name, maxConcurrency);
+      }
+
+      System.out.println(
+          "Virtual threads are not available on Java "
+              + System.getProperty("java.version")
+              + ", database-"
+              + name
+              + " uses platform threads");
+    }
+
+    return new BoundedExecutor(name, maxConcurrency, queueCapacity, rejectionPolicy);
+  }
+
+  /**
+   * Get all executors which are not terminated yet
+   *
+   * @return the executors
+   */
+  public static Collection<DatabaseExecutor> getExecutors() {
+    return Collections.unmodifiableSet(DatabaseExecutors.EXECUTORS);
+  }
+
+  static void register(DatabaseExecutor executor) {
+    DatabaseExecutors.EXECUTORS.add(executor);
+  }
+
+  static void unregister(DatabaseExecutor executor) {
+    DatabaseExecutors.EXECUTORS.remove(executor);
+  }
+}
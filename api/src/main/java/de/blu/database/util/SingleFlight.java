@@ -0,0 +1,134 @@
+package de.blu.database.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time, every caller which asks for the same key while a load
+ * is running gets the result of that load instead of starting another one
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public final class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+  private final LongAdder executedCount = new LongAdder();
+  private final LongAdder collapsedCount = new LongAdder();
+
+  /**
+   * Load a value on the calling thread or wait for the running load of the key
+   *
+   * @param key the key
+   * @param loader loads the value
+   * @return the loaded value
+   */
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> runningFuture = this.running.putIfAbsent(key, future);
+    if (runningFuture != null) {
+      this.collapsedCount.increment();
+      try {
+        return runningFuture.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+
+        throw e;
+      }
+    }
+
+    this.executedCount.increment();
+    Throwable failure = null;
+    V value = null;
+    try {
+      value = loader.get();
+      return value;
+    } catch (Throwable e) {
+      failure = e;
+      throw e;
+    } finally {
+      // the waiters are released whatever the loader threw, an Error included
+      this.running.remove(key, future);
+      if (failure != null) {
+        future.completeExceptionally(failure);
+      } else {
+        future.complete(value);
+      }
+    }
+  }
+
+  /**
+   * Start an async load or join the running load of the key
+   *
+   * @param key the key
+   * @param loader starts the load
+   * @return future which is completed with the loaded value
+   */
+  public CompletableFuture<V> executeFuture(K key, Supplier<CompletableFuture<V>> loader) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> runningFuture = this.running.putIfAbsent(key, future);
+    if (runningFuture != null) {
+      this.collapsedCount.increment();
+      return runningFuture.thenApply(Function.identity());
+    }
+
+    this.executedCount.increment();
+    try {
+      loader
+          .get()
+          .whenComplete(
+              (value, throwable) -> {
+                this.running.remove(key, future);
+                if (throwable != null) {
+                  future.completeExceptionally(throwable);
+                } else {
+                  future.complete(value);
+                }
+              });
+    } catch (Throwable e) {
+      this.running.remove(key, future);
+      future.completeExceptionally(e);
+    }
+
+    // every caller gets its own future, completing or cancelling it does not touch the others
+    return future.thenApply(Function.identity());
+  }
+
+  /**
+   * Get the amount of loads which are running right now
+   *
+   * @return the amount of keys with a running load
+   */
+  public int getRunningCount() {
+    return this.running.size();
+  }
+
+  /**
+   * Get the amount of loads which were really executed
+   *
+   * @return the amount of executed loads
+   */
+  public long getExecutedCount() {
+    return this.executedCount.sum();
+  }
+
+  /**
+   * Get the amount of calls which got the result of a running load instead of executing their own
+   *
+   * @return the amount of collapsed calls
+   */
+  public long getCollapsedCount() {
+    return this.collapsedCount.sum();
+  }
+}
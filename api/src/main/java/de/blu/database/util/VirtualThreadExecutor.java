@@ -0,0 +1,172 @@
+package de.blu.database.util;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every task on its own virtual thread (Java 21+), a Semaphore limits how many of them run at
+ * the same time. A waiting task only costs the memory of its stack instead of a platform thread.
+ * The virtual thread API is called by reflection because the api is compiled for Java 8
+ */
+@Getter
+public final class VirtualThreadExecutor extends AbstractExecutorService
+    implements DatabaseExecutor {
+
+  private static final boolean SUPPORTED = VirtualThreadExecutor.probe();
+
+  private final String name;
+  private final int maxConcurrency;
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+  private final AtomicInteger waitingCount = new AtomicInteger();
+  private final LongAdder completedCount = new LongAdder();
+  private final LongAdder callerRunsCount = new LongAdder();
+
+  /**
+   * Create a VirtualThreadExecutor, the threads are named database-name-N
+   *
+   * @param name the name of the executor, e.g. mysql-worker
+   * @param maxConcurrency the maximum amount of tasks running at the same time
+   */
+  public VirtualThreadExecutor(String name, int maxConcurrency) {
+    this.name = name;
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+    this.permits = new Semaphore(this.maxConcurrency, true);
+
+    try {
+      ThreadFactory threadFactory =
+          VirtualThreadExecutor.createThreadFactory("database-" + name + "-");
+      this.delegate =
+          (ExecutorService)
+              Executors.class
+                  .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                  .invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads are not available", e);
+    }
+
+    DatabaseExecutors.register(this);
+  }
+
+  /**
+   * Check if the running JVM supports virtual threads
+   *
+   * @return true if virtual threads can be created
+   */
+  public static boolean isSupported() {
+    return VirtualThreadExecutor.SUPPORTED;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Runnable task =
+        () -> {
+          try {
+            this.permits.acquire();
+          } catch (InterruptedException e) {
+            this.waitingCount.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+          }
+
+          this.waitingCount.decrementAndGet();
+          try {
+            command.run();
+          } finally {
+            this.permits.release();
+            this.completedCount.increment();
+          }
+        };
+
+    this.waitingCount.incrementAndGet();
+    try {
+      this.delegate.execute(task);
+    } catch (RejectedExecutionException e) {
+      // after a shutdown late callbacks still have to run, otherwise their futures never complete
+      this.callerRunsCount.increment();
+      task.run();
+    }
+  }
+
+  @Override
+  public int getActiveCount() {
+    return this.maxConcurrency - this.permits.availablePermits();
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return this.waitingCount.get();
+  }
+
+  @Override
+  public void shutdown() {
+    this.delegate.shutdown();
+    DatabaseExecutors.unregister(this);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    DatabaseExecutors.unregister(this);
+    return this.delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return this.delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return this.delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return this.delegate.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return "database-"
+        + this.getName()
+        + " [virtual, active="
+        + this.getActiveCount()
+        + "/"
+        + this.getMaxConcurrency()
+        + ", waiting="
+        + this.getQueueDepth()
+        + ", completed="
+        + this.getCompletedCount().sum()
+        + ", callerRuns="
+        + this.getCallerRunsCount().sum()
+        + "]";
+  }
+
+  private static ThreadFactory createThreadFactory(String prefix)
+      throws ReflectiveOperationException {
+    Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+    Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+    builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+    return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+  }
+
+  private static boolean probe() {
+    try {
+      VirtualThreadExecutor.createThreadFactory("database-probe-");
+      return true;
+    } catch (Throwable throwable) {
+      // older Java versions or virtual threads as a disabled preview feature
+      return false;
+    }
+  }
+}
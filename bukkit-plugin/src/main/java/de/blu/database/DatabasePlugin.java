@@ -1,18 +1,57 @@
 package de.blu.database;
 
 import de.blu.database.data.Platform;
+import de.blu.database.guard.DatabaseTimeCommand;
+import de.blu.database.guard.MainThreadGuard;
+import lombok.Getter;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import javax.inject.Singleton;
 import java.io.File;
 
 @Singleton
+@Getter
 public final class DatabasePlugin extends JavaPlugin {
 
+  private MainThreadGuard mainThreadGuard;
+
   @Override
   public void onEnable() {
+    this.saveDefaultConfig();
+    FileConfiguration config = this.getConfig();
+
     DatabaseAPI.init(
-        Platform.BUKKIT_16, new File(this.getDataFolder(), "libs"), this.getDataFolder());
-    DatabaseAPI databaseAPI = DatabaseAPI.getInstance();
+        Platform.BUKKIT_16,
+        new File(this.getDataFolder(), "libs"),
+        this.getDataFolder(),
+        config.getBoolean("metrics.jmx-enabled", true));
+
+    this.mainThreadGuard =
+        new MainThreadGuard(
+            this,
+            MainThreadGuard.Mode.of(config.getString("main-thread-guard.mode", "WARN")),
+            config.getInt("main-thread-guard.warn-interval-seconds", 10),
+            config.getInt("main-thread-guard.report-interval-seconds", 60));
+    this.mainThreadGuard.start();
+
+    DatabaseTimeCommand databaseTimeCommand = new DatabaseTimeCommand(this.mainThreadGuard);
+    PluginCommand command = this.getCommand("databasetime");
+    if (command != null) {
+      command.setExecutor(databaseTimeCommand);
+      command.setTabCompleter(databaseTimeCommand);
+    }
+  }
+
+  @Override
+  public void onDisable() {
+    if (this.mainThreadGuard != null) {
+      this.mainThreadGuard.stop();
+    }
+
+    if (DatabaseAPI.getInstance() != null) {
+      DatabaseAPI.getInstance().shutdown();
+    }
   }
 }
@@ -0,0 +1,105 @@
+package de.blu.database.guard;
+
+import de.blu.database.metrics.MetricsTextDump;
+import de.blu.database.metrics.SlowOperationRecorder;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * /databasetime shows the database time per tick and of the plugins which called database
+ * operations on the main thread
+ */
+public final class DatabaseTimeCommand implements CommandExecutor, TabCompleter {
+
+  private static final int MAX_PLUGINS = 10;
+  private static final List<String> SUB_COMMANDS =
+      Arrays.asList("mode", "reset", "metrics", "slow");
+
+  private final MainThreadGuard mainThreadGuard;
+
+  public DatabaseTimeCommand(MainThreadGuard mainThreadGuard) {
+    this.mainThreadGuard = mainThreadGuard;
+  }
+
+  @Override
+  public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+    if (args.length == 0) {
+      for (String line : this.mainThreadGuard.getReport(MAX_PLUGINS)) {
+        sender.sendMessage(line);
+      }
+
+      return true;
+    }
+
+    switch (args[0].toLowerCase()) {
+      case "mode":
+        if (args.length < 2) {
+          sender.sendMessage("Mode: " + this.mainThreadGuard.getMode());
+          return true;
+        }
+
+        this.mainThreadGuard.setMode(MainThreadGuard.Mode.of(args[1]));
+        sender.sendMessage(ChatColor.GREEN + "Mode: " + this.mainThreadGuard.getMode());
+        return true;
+      case "reset":
+        this.mainThreadGuard.reset();
+        sender.sendMessage(ChatColor.GREEN + "The database time was reset");
+        return true;
+      case "metrics":
+        DatabaseTimeCommand.sendText(sender, MetricsTextDump.dump());
+        return true;
+      case "slow":
+        String slowOperations = SlowOperationRecorder.dumpAll();
+        if (slowOperations.isEmpty()) {
+          sender.sendMessage("No slow operations were recorded");
+          return true;
+        }
+
+        DatabaseTimeCommand.sendText(sender, slowOperations);
+        return true;
+      default:
+        sender.sendMessage(
+            ChatColor.RED + "/" + label + " [mode <off|warn|report|reject>|reset|metrics|slow]");
+        return true;
+    }
+  }
+
+  @Override
+  public List<String> onTabComplete(
+      CommandSender sender, Command command, String label, String[] args) {
+    List<String> options;
+    if (args.length == 1) {
+      options = DatabaseTimeCommand.SUB_COMMANDS;
+    } else if (args.length == 2 && args[0].equalsIgnoreCase("mode")) {
+      options = new ArrayList<>();
+      for (MainThreadGuard.Mode mode : MainThreadGuard.Mode.values()) {
+        options.add(mode.name().toLowerCase());
+      }
+    } else {
+      return Collections.emptyList();
+    }
+
+    List<String> completions = new ArrayList<>();
+    for (String option : options) {
+      if (option.startsWith(args[args.length - 1].toLowerCase())) {
+        completions.add(option);
+      }
+    }
+
+    return completions;
+  }
+
+  private static void sendText(CommandSender sender, String text) {
+    for (String line : text.split("\\R")) {
+      sender.sendMessage(line);
+    }
+  }
+}
@@ -0,0 +1,361 @@
+package de.blu.database.guard;
+
+import de.blu.database.metrics.CallSite;
+import de.blu.database.metrics.MetricKey;
+import de.blu.database.metrics.Metrics;
+import de.blu.database.metrics.OperationListener;
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the storage operations which are called on the primary server thread. The time until
+ * their method returns is summed up per tick and per calling plugin, whatever the operation is
+ * called, the work of a future or async operation after that is not counted. Depending on the Mode
+ * the blocking calls are also logged or rejected
+ */
+@Getter
+public final class MainThreadGuard implements OperationListener {
+
+  private static final int TICK_HISTORY = 100;
+  private static final int CALLER_FRAMES = 6;
+  private static final String GAUGE_PREFIX = "bukkit.main-thread.database-time.";
+  private static final String UNKNOWN_PLUGIN = "unknown";
+  private static final Set<String> NON_BLOCKING_OPERATIONS =
+      new HashSet<>(Arrays.asList("publishBatched", "consume"));
+
+  private final Plugin plugin;
+  private final long warnIntervalNanos;
+  private final int reportIntervalTicks;
+  @Setter private volatile Mode mode;
+
+  // everything below is only used on the primary thread, except the volatile tick times
+  private final Map<String, PluginDatabaseTime> pluginTimes = new HashMap<>();
+  private final Map<String, String> pluginNames = new HashMap<>();
+  private final Map<String, Long> lastWarnings = new HashMap<>();
+  private final Deque<PendingCall> pendingCalls = new ArrayDeque<>();
+  private final long[] tickHistory = new long[TICK_HISTORY];
+  private int tickIndex;
+  private long tickCount;
+  private long historyNanos;
+  private long currentTickNanos;
+  private long callsSinceReport;
+  private volatile long lastTickNanos;
+  private volatile long averageTickNanos;
+  private volatile long maxTickNanos;
+  private BukkitTask tickTask;
+
+  /**
+   * Create a MainThreadGuard, it does nothing until it is started
+   *
+   * @param plugin the plugin which owns the guard, its own calls are only counted as a fallback
+   * @param mode what to do with a database operation on the main thread
+   * @param warnIntervalSeconds the minimum time between two warnings of the same plugin and
+   *     operation
+   * @param reportIntervalSeconds how often the database time is logged in the REPORT mode
+   */
+  public MainThreadGuard(
+      Plugin plugin, Mode mode, int warnIntervalSeconds, int reportIntervalSeconds) {
+    this.plugin = plugin;
+    this.mode = mode;
+    this.warnIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(0, warnIntervalSeconds));
+    this.reportIntervalTicks = Math.max(1, reportIntervalSeconds) * 20;
+  }
+
+  /** Start listening for database operations and counting the ticks */
+  public void start() {
+    Metrics.addListener(this);
+    this.tickTask = Bukkit.getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+
+    Metrics.getRegistry()
+        .registerGauge(GAUGE_PREFIX + "last-tick-millis", () -> this.getLastTickNanos() / 1e6);
+    Metrics.getRegistry()
+        .registerGauge(
+            GAUGE_PREFIX + "average-tick-millis", () -> this.getAverageTickNanos() / 1e6);
+    Metrics.getRegistry()
+        .registerGauge(GAUGE_PREFIX + "max-tick-millis", () -> this.getMaxTickNanos() / 1e6);
+  }
+
+  /** Stop listening for database operations */
+  public void stop() {
+    Metrics.removeListener(this);
+    if (this.tickTask != null) {
+      this.tickTask.cancel();
+      this.tickTask = null;
+    }
+
+    Metrics.getRegistry().removeGauge(GAUGE_PREFIX + "last-tick-millis");
+    Metrics.getRegistry().removeGauge(GAUGE_PREFIX + "average-tick-millis");
+    Metrics.getRegistry().removeGauge(GAUGE_PREFIX + "max-tick-millis");
+  }
+
+  @Override
+  public void onStart(MetricKey key) {
+    if (this.getMode() == Mode.OFF || !Bukkit.isPrimaryThread()) {
+      return;
+    }
+
+    // the stack is read once per call, for the calling plugin and for the warning
+    CallSite callSite = new CallSite();
+    PluginDatabaseTime pluginTime = this.getPluginTime(this.findCallingPlugin(callSite));
+    if (this.getMode() == Mode.REJECT && MainThreadGuard.isBlocking(key)) {
+      pluginTime.reject(key);
+      throw new IllegalStateException(
+          "Database operation "
+              + key
+              + " of "
+              + pluginTime.getPluginName()
+              + " was rejected on the main thread, use an Async or Future method instead");
+    }
+
+    this.pendingCalls.push(new PendingCall(pluginTime, callSite));
+  }
+
+  @Override
+  public void onReturn(MetricKey key, long durationNanos) {
+    if (!Bukkit.isPrimaryThread() || this.pendingCalls.isEmpty()) {
+      return;
+    }
+
+    PendingCall pendingCall = this.pendingCalls.pop();
+    PluginDatabaseTime pluginTime = pendingCall.pluginTime;
+    pluginTime.record(key, durationNanos);
+    this.currentTickNanos += durationNanos;
+    this.callsSinceReport++;
+
+    if (this.getMode() == Mode.WARN && MainThreadGuard.isBlocking(key)) {
+      this.warn(key, durationNanos, pluginTime, pendingCall.callSite);
+    }
+  }
+
+  /**
+   * Get the time of all plugins
+   *
+   * @return the plugins, the most time first
+   */
+  public List<PluginDatabaseTime> getPluginTimes() {
+    List<PluginDatabaseTime> pluginTimes = new ArrayList<>(this.pluginTimes.values());
+    pluginTimes.sort(Comparator.comparingLong(PluginDatabaseTime::getTotalNanos).reversed());
+    return pluginTimes;
+  }
+
+  /**
+   * Describe the database time per tick and of the plugins which spent the most time
+   *
+   * @param maxPlugins the maximum amount of plugins
+   * @return the lines of the report
+   */
+  public List<String> getReport(int maxPlugins) {
+    List<String> lines = new ArrayList<>();
+    lines.add(
+        String.format(
+            "Database time on the main thread (%s): last tick %.2f ms, average %.2f ms over %d"
+                + " ticks, worst tick %.2f ms",
+            this.getMode(),
+            this.getLastTickNanos() / 1e6,
+            this.getAverageTickNanos() / 1e6,
+            Math.min(this.tickCount, TICK_HISTORY),
+            this.getMaxTickNanos() / 1e6));
+
+    Collection<PluginDatabaseTime> pluginTimes = this.getPluginTimes();
+    if (pluginTimes.isEmpty()) {
+      lines.add("No database operations were called on the main thread");
+      return lines;
+    }
+
+    lines.add(
+        String.format(
+            "%-20s %8s %8s %10s %9s %10s  %s",
+            "plugin", "calls", "rejected", "total ms", "max call", "max tick", "last operation"));
+    for (PluginDatabaseTime pluginTime : pluginTimes) {
+      if (lines.size() - 2 >= maxPlugins) {
+        break;
+      }
+
+      lines.add(
+          String.format(
+              "%-20s %8d %8d %10.2f %9.2f %10.2f  %s",
+              pluginTime.getPluginName(),
+              pluginTime.getCalls(),
+              pluginTime.getRejectedCalls(),
+              pluginTime.getTotalNanos() / 1e6,
+              pluginTime.getMaxCallNanos() / 1e6,
+              pluginTime.getMaxTickNanos() / 1e6,
+              pluginTime.getLastOperation()));
+    }
+
+    return lines;
+  }
+
+  /** Remove the times of all plugins and ticks */
+  public void reset() {
+    this.pluginTimes.clear();
+    this.lastWarnings.clear();
+    Arrays.fill(this.tickHistory, 0);
+    this.tickIndex = 0;
+    this.tickCount = 0;
+    this.historyNanos = 0;
+    this.callsSinceReport = 0;
+    this.lastTickNanos = 0;
+    this.averageTickNanos = 0;
+    this.maxTickNanos = 0;
+  }
+
+  // runs once per tick on the primary thread, so it is never inside of a database operation
+  private void tick() {
+    this.historyNanos += this.currentTickNanos - this.tickHistory[this.tickIndex];
+    this.tickHistory[this.tickIndex] = this.currentTickNanos;
+    this.tickIndex = (this.tickIndex + 1) % TICK_HISTORY;
+    this.tickCount++;
+
+    this.lastTickNanos = this.currentTickNanos;
+    this.averageTickNanos = this.historyNanos / Math.min(this.tickCount, TICK_HISTORY);
+    this.maxTickNanos = Math.max(this.maxTickNanos, this.currentTickNanos);
+    this.currentTickNanos = 0;
+
+    for (PluginDatabaseTime pluginTime : this.pluginTimes.values()) {
+      pluginTime.endTick();
+    }
+
+    // a listener after this one may have aborted an operation before it ended
+    this.pendingCalls.clear();
+
+    if (this.getMode() == Mode.REPORT
+        && this.tickCount % this.reportIntervalTicks == 0
+        && this.callsSinceReport > 0) {
+      this.callsSinceReport = 0;
+      for (String line : this.getReport(10)) {
+        this.plugin.getLogger().info(line);
+      }
+    }
+  }
+
+  private void warn(
+      MetricKey key, long durationNanos, PluginDatabaseTime pluginTime, CallSite callSite) {
+    String warningKey = pluginTime.getPluginName() + " " + key;
+    long now = System.nanoTime();
+    Long lastWarning = this.lastWarnings.get(warningKey);
+    if (lastWarning != null && now - lastWarning < this.warnIntervalNanos) {
+      return;
+    }
+
+    this.lastWarnings.put(warningKey, now);
+
+    StringBuilder message = new StringBuilder();
+    message.append(
+        String.format(
+            "%s blocked the main thread for %.2f ms with %s, use an Async or Future method"
+                + " instead",
+            pluginTime.getPluginName(), durationNanos / 1e6, key));
+    for (String frame : callSite.getCallerFrames(CALLER_FRAMES)) {
+      message.append(System.lineSeparator()).append("    at ").append(frame);
+    }
+
+    this.plugin.getLogger().warning(message.toString());
+  }
+
+  private PluginDatabaseTime getPluginTime(String pluginName) {
+    return this.pluginTimes.computeIfAbsent(pluginName, PluginDatabaseTime::new);
+  }
+
+  // the first plugin on the stack which is not this plugin, the api classes belong to this plugin
+  private String findCallingPlugin(CallSite callSite) {
+    String ownName = this.plugin.getName();
+    boolean calledByOwnPlugin = false;
+    for (StackTraceElement element : callSite.getStackTrace()) {
+      String pluginName = this.getPluginName(element.getClassName());
+      if (pluginName.isEmpty()) {
+        continue;
+      }
+
+      if (!pluginName.equals(ownName)) {
+        return pluginName;
+      }
+
+      calledByOwnPlugin = true;
+    }
+
+    return calledByOwnPlugin ? ownName : UNKNOWN_PLUGIN;
+  }
+
+  private String getPluginName(String className) {
+    // the class loader of this plugin also finds the classes of the other plugins, the result is
+    // kept per class name, so every class on the stack is only looked up once
+    return this.pluginNames.computeIfAbsent(
+        className,
+        name -> {
+          try {
+            Class<?> type = Class.forName(name, false, this.plugin.getClass().getClassLoader());
+            return JavaPlugin.getProvidingPlugin(type).getName();
+          } catch (ClassNotFoundException
+              | LinkageError
+              | IllegalArgumentException
+              | IllegalStateException e) {
+            // the server, a library, the JDK or a generated class like a lambda
+            return "";
+          }
+        });
+  }
+
+  // only decides what is rejected or warned about, the time of every operation is counted
+  private static boolean isBlocking(MetricKey key) {
+    String operation = key.getOperation();
+    return !operation.endsWith("Async")
+        && !operation.endsWith("Future")
+        && !MainThreadGuard.NON_BLOCKING_OPERATIONS.contains(operation);
+  }
+
+  /** What happens with a database operation which is called on the main thread */
+  public enum Mode {
+    /** Do not watch the main thread at all */
+    OFF,
+    /** Count the time and log a warning with the calling code */
+    WARN,
+    /** Count the time and log the database time of the plugins regularly */
+    REPORT,
+    /** Throw an IllegalStateException before the operation is run */
+    REJECT;
+
+    /**
+     * Get a Mode by its name
+     *
+     * @param name the name, case is ignored
+     * @return the mode or WARN if the name is unknown
+     */
+    public static Mode of(String name) {
+      for (Mode mode : Mode.values()) {
+        if (mode.name().equalsIgnoreCase(name)) {
+          return mode;
+        }
+      }
+
+      return WARN;
+    }
+  }
+
+  private static final class PendingCall {
+    private final PluginDatabaseTime pluginTime;
+    private final CallSite callSite;
+
+    private PendingCall(PluginDatabaseTime pluginTime, CallSite callSite) {
+      this.pluginTime = pluginTime;
+      this.callSite = callSite;
+    }
+  }
+}
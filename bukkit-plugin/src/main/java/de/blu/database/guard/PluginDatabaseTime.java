@@ -0,0 +1,52 @@
+package de.blu.database.guard;
+
+import de.blu.database.metrics.MetricKey;
+import lombok.Getter;
+
+/** The time a plugin spent in database operations on the main thread */
+@Getter
+public final class PluginDatabaseTime {
+
+  private final String pluginName;
+  private long calls;
+  private long rejectedCalls;
+  private long totalNanos;
+  private long maxCallNanos;
+  private long tickNanos;
+  private long maxTickNanos;
+  private String lastOperation = "";
+
+  public PluginDatabaseTime(String pluginName) {
+    this.pluginName = pluginName;
+  }
+
+  /**
+   * Add an operation which blocked the main thread
+   *
+   * @param key the key of the operation
+   * @param durationNanos how long the operation took
+   */
+  public void record(MetricKey key, long durationNanos) {
+    this.calls++;
+    this.totalNanos += durationNanos;
+    this.tickNanos += durationNanos;
+    this.maxCallNanos = Math.max(this.maxCallNanos, durationNanos);
+    this.lastOperation = key.toString();
+  }
+
+  /**
+   * Count an operation which was rejected before it was run
+   *
+   * @param key the key of the operation
+   */
+  public void reject(MetricKey key) {
+    this.rejectedCalls++;
+    this.lastOperation = key.toString();
+  }
+
+  /** Called once per tick, the time of the current tick starts at 0 again */
+  public void endTick() {
+    this.maxTickNanos = Math.max(this.maxTickNanos, this.tickNanos);
+    this.tickNanos = 0;
+  }
+}
@@ -0,0 +1,84 @@
+package database;
+
+import de.blu.database.DatabaseAPI;
+import de.blu.database.data.Platform;
+import de.blu.database.data.TableColumn;
+import de.blu.database.data.TableColumnType;
+import de.blu.database.storage.TableStorage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public final class InsertBatchBenchmark {
+
+  private static final String TABLE_NAME = "insert_benchmark";
+  private static final String[] KEYS = {"id", "name", "kills", "active"};
+  private static final int ROWS = 20000;
+
+  public static void main(String[] args) {
+    System.out.println("Benchmarking insertInto against insertBatch");
+    DatabaseAPI.init(
+        Platform.STANDALONE,
+        new File("C:\\Users/Blu/IdeaProjects/database-system/bukkit-plugin/build/data/libs"),
+        new File("C:\\Users/Blu/IdeaProjects/database-system/bukkit-plugin/build/data/configs"));
+
+    DatabaseAPI databaseAPI = DatabaseAPI.getInstance();
+
+    if (databaseAPI.getMySQLConfig().isEnabled() && databaseAPI.getMySQLConnection().isConnected()) {
+      System.out.println("MySQL:");
+      benchmark(databaseAPI.getMySQLConnection());
+    }
+
+    if (databaseAPI.getCassandraConfig().isEnabled()
+        && databaseAPI.getCassandraConnection().isConnected()) {
+      System.out.println("Cassandra:");
+      benchmark(databaseAPI.getCassandraConnection());
+    }
+  }
+
+  private static void benchmark(TableStorage tableStorage) {
+    List<TableColumn> columns =
+        Arrays.asList(
+            new TableColumn(TableColumnType.BIGINT, "id", true),
+            new TableColumn(TableColumnType.STRING, "name", false),
+            new TableColumn(TableColumnType.INTEGER, "kills", false),
+            new TableColumn(TableColumnType.BOOLEAN, "active", false));
+    tableStorage.createTableIfNotExist(TABLE_NAME, columns);
+
+    List<Object[]> loopRows = createRows(0);
+    long start = System.nanoTime();
+    for (Object[] row : loopRows) {
+      tableStorage.insertInto(TABLE_NAME, KEYS, row);
+    }
+    print("insertInto loop", start);
+
+    List<Object[]> batchRows = createRows(ROWS);
+    start = System.nanoTime();
+    tableStorage.insertBatch(TABLE_NAME, KEYS, batchRows);
+    print("insertBatch", start);
+
+    for (int i = 0; i < ROWS * 2; i++) {
+      tableStorage.deleteFrom(TABLE_NAME, "id", (long) i);
+    }
+  }
+
+  private static List<Object[]> createRows(int offset) {
+    List<Object[]> rows = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      rows.add(
+          new Object[] {(long) (offset + i), UUID.randomUUID().toString(), i % 100, i % 2 == 0});
+    }
+
+    return rows;
+  }
+
+  private static void print(String name, long start) {
+    double seconds = (System.nanoTime() - start) / 1_000_000_000D;
+    System.out.println(
+        "  " + name + ": " + ROWS + " rows in " + String.format("%.2f", seconds) + "s ("
+            + String.format("%.0f", ROWS / seconds) + " rows/s)");
+  }
+}